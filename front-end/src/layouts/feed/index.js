@@ -135,7 +135,7 @@ function Feed() {
                     </MDTypography>
                   </Grid>
                 </Grid>
-                <MDTypography variant="body2">{post.body}</MDTypography>
+                <MDTypography variant="body2">{post.excerpt}</MDTypography>
                 <Grid container>
                   <Grid item xs={11}></Grid>
                   <Grid item xs={1}>
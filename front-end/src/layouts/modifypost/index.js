@@ -14,7 +14,7 @@ Coded by www.creative-tim.com
 */
 
 import * as React from 'react';
-import { useState } from 'react';
+import { useState, useEffect } from 'react';
 import { Link, useNavigate, useLocation } from 'react-router-dom';
 
 // @mui material components
@@ -55,7 +55,7 @@ function ModifyPost() {
   const { state } = useLocation();
   console.log(state);
   const [title, setTitle] = useState(state.title);
-  const [body, setBody] = useState(state.body);
+  const [body, setBody] = useState('');
   const [id, setId] = useState(state.id);
   const [open, setOpen] = React.useState(false);
   const [dialogTitle, setDialogTitle] = React.useState('');
@@ -69,6 +69,27 @@ function ModifyPost() {
     setOpen(false);
   };
 
+  const handleGetPost = (event) => {
+    axios({
+      url: '/api/v1/posts/' + id,
+      method: 'GET',
+      headers: {
+        Authorization: 'Bearer ' + localStorage.getItem('token'),
+      },
+    })
+      .then((res) => {
+        console.log('success');
+        setBody(res.data.result.body);
+      })
+      .catch((error) => {
+        console.log(error);
+      });
+  };
+
+  useEffect(() => {
+    handleGetPost();
+  }, []);
+
   const handleModifyPost = (event) => {
     console.log(localStorage.getItem('token'));
     console.log('title : ' + title);
@@ -117,7 +138,7 @@ function ModifyPost() {
               <MDBox mb={2}>
                 <MDInput
                   label="Body"
-                  defaultValue={body}
+                  value={body}
                   multiline
                   rows={20}
                   onChange={(v) => setBody(v.target.value)}
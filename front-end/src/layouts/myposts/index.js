@@ -160,7 +160,7 @@ function MyPosts() {
                     </MDTypography>
                   </Grid>
                 </Grid>
-                <MDTypography variant="body2">{post.body}</MDTypography>
+                <MDTypography variant="body2">{post.excerpt}</MDTypography>
                 <Grid container>
                   <Grid item xs={9}></Grid>
                   <Grid item xs={1}>
@@ -60,7 +60,7 @@ function PostDetail() {
   const [page, setPage] = useState(0);
   const [title, setTitle] = useState(state.title);
   const [writer, setWriter] = useState(state.user.userName);
-  const [body, setBody] = useState(state.body);
+  const [body, setBody] = useState('');
   const [id, setId] = useState(state.id);
 
   const [likes, setLikes] = useState(0);
@@ -86,6 +86,23 @@ function PostDetail() {
       });
   };
 
+  const handleGetPost = (event) => {
+    axios({
+      url: '/api/v1/posts/' + id,
+      method: 'GET',
+      headers: {
+        Authorization: 'Bearer ' + localStorage.getItem('token'),
+      },
+    })
+      .then((res) => {
+        console.log('success');
+        setBody(res.data.result.body);
+      })
+      .catch((error) => {
+        console.log(error);
+      });
+  };
+
   const handleLikeCounts = (event) => {
     console.log(localStorage.getItem('token'));
     axios({
@@ -154,6 +171,7 @@ function PostDetail() {
   };
 
   useEffect(() => {
+    handleGetPost();
     handleGetComments();
     handleLikeCounts();
   }, '');
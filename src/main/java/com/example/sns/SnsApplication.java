@@ -3,8 +3,10 @@ package com.example.sns;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SnsApplication {
     public static void main(String[] args) {
         SpringApplication.run(SnsApplication.class, args);
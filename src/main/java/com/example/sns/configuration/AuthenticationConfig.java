@@ -2,9 +2,11 @@ package com.example.sns.configuration;
 
 import com.example.sns.configuration.filter.JwtTokenFilter;
 import com.example.sns.exception.CustomAuthenticationEntryPoint;
+import com.example.sns.model.UserRole;
+import com.example.sns.repository.TokenRevocationRepository;
 import com.example.sns.service.UserService;
+import com.example.sns.util.JwtTokenVerifier;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
@@ -19,8 +21,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class AuthenticationConfig extends WebSecurityConfigurerAdapter {
 
     private final UserService userService;
-    @Value("${jwt.secret-key}")
-    private String key;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final TokenRevocationRepository tokenRevocationRepository;
 
     @Override
     public void configure(WebSecurity web) throws Exception {
@@ -33,12 +35,14 @@ public class AuthenticationConfig extends WebSecurityConfigurerAdapter {
         http.csrf().disable() //csrf 토큰 검사 X
                 .authorizeRequests() //요청에 대한 권한 및 인증 규칙 정의
                 .antMatchers("/api/*/users/join", "/api/*/users/login").permitAll() //설정한 경로에 대한 요청은 모든 사용자에게 허용됨
+                .antMatchers("/api/*/posts/search/rebuild").hasAuthority(UserRole.ADMIN.name()) //검색 색인 재생성은 관리자만 가능
+                .antMatchers("/api/*/users/*/role").hasAuthority(UserRole.ADMIN.name()) //권한 변경은 관리자만 가능
                 .antMatchers("/api/**").authenticated() //설정한 경로에 대한 모든 요청은 인증된 사용자만 허용
                 .and()
                 .sessionManagement()// 세션 관리 설정
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)// 세션 생성하지 않고, 상태를 유지하지 않게 설정
                 .and()
-                .addFilterBefore(new JwtTokenFilter(key, userService), UsernamePasswordAuthenticationFilter.class) //jwt 토큰 검증하고 사용자 인증
+                .addFilterBefore(new JwtTokenFilter(jwtTokenVerifier, userService, tokenRevocationRepository), UsernamePasswordAuthenticationFilter.class) //jwt 토큰 검증하고 사용자 인증
                 .exceptionHandling()
                 .authenticationEntryPoint(new CustomAuthenticationEntryPoint()); //사용자 인증이 실패한 경우 CustomAuthenticationEntryPoint를 호출 적절한 오류 응답 생성
     }
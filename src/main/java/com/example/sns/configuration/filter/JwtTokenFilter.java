@@ -1,8 +1,10 @@
 package com.example.sns.configuration.filter;
 
 import com.example.sns.model.User;
+import com.example.sns.repository.TokenRevocationRepository;
 import com.example.sns.service.UserService;
-import com.example.sns.util.JwtTokenUtils;
+import com.example.sns.util.JwtClaims;
+import com.example.sns.util.JwtTokenVerifier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -22,8 +24,9 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtTokenFilter extends OncePerRequestFilter {
 
-    private final String key;
+    private final JwtTokenVerifier jwtTokenVerifier;
     private final UserService userService;
+    private final TokenRevocationRepository tokenRevocationRepository;
 
     //모든 HTTP 요청에 대해 한 번만 실행되는 메서드, 요청을 처리하고 jwt를 확인하고 사용자를 인증함.
     @Override
@@ -42,17 +45,15 @@ public class JwtTokenFilter extends OncePerRequestFilter {
             final String token = header.split(" ")[1].trim(); //Bearer 다음의 jwt 토큰을 추출
 
             //check token is valid
-            if (JwtTokenUtils.isExpired(token, key)) { //토큰이 만료 되었으면,
-                log.error("Key is expired");
-                filterChain.doFilter(request, response); //필터 체인 계속 진행
+            JwtClaims claims = jwtTokenVerifier.verify(token); //서명과 만료 여부를 한 번의 파싱으로 검증, 만료되었거나 잘못된 토큰이면 예외 발생
+            if (tokenRevocationRepository.isRevoked(claims.getTokenId())) { //로그아웃으로 폐기된 토큰이면,
+                log.error("Token is revoked");
+                filterChain.doFilter(request, response);
                 return;
             }
 
-            //get username from token
-            String userName = JwtTokenUtils.getUserName(token, key); //jwt 토큰에서 사용자 이름 저장
-
             //check the user is valid
-            User user = userService.loadUserByUserName(userName); //사용자 이름을 사용해 사용자 정보를 db에서 가져옴
+            User user = userService.loadUserByClaims(claims); //stateless 토큰이면 클레임으로, 아니면 사용자 이름으로 사용자 정보를 가져옴
 
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     user, null, user.getAuthorities()
@@ -4,22 +4,36 @@ import com.example.sns.controller.request.PostCommentRequest;
 import com.example.sns.controller.request.PostCreateRequest;
 import com.example.sns.controller.request.PostModifyRequest;
 import com.example.sns.controller.response.CommentResponse;
+import com.example.sns.controller.response.CursorResponse;
 import com.example.sns.controller.response.PostResponse;
 import com.example.sns.controller.response.Response;
+import com.example.sns.controller.response.SliceResponse;
 import com.example.sns.model.Post;
+import com.example.sns.model.PostEngagement;
+import com.example.sns.model.User;
 import com.example.sns.service.PostService;
+import com.example.sns.service.TimelineService;
+import com.example.sns.util.CursorUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
 @RestController
 @RequestMapping("/api/v1/posts")
 @RequiredArgsConstructor
 public class PostController {
 
     private final PostService postService;
+    private final TimelineService timelineService;
 
     @PostMapping
     public Response<Void> create(@RequestBody PostCreateRequest request, Authentication authentication) {
@@ -27,6 +41,11 @@ public class PostController {
         return Response.success();
     }
 
+    @GetMapping("/{postId}")
+    public Response<PostResponse> detail(@PathVariable Integer postId) {
+        return Response.success(PostResponse.fromPost(postService.detail(postId)));
+    }
+
     @PutMapping("/{postId}")
     public Response<PostResponse> modify(@PathVariable Integer postId, @RequestBody PostModifyRequest request, Authentication authentication) {
         Post post = postService.modify(request.getTitle(), request.getBody(), authentication.getName(), postId);
@@ -39,14 +58,77 @@ public class PostController {
         return Response.success();
     }
 
+    //목록 응답에는 좋아요 수, 댓글 수, 내가 좋아요 했는지가 함께 담김
     @GetMapping
-    public Response<Page<PostResponse>> list(Pageable pageable) {
-        return Response.success(postService.list(pageable).map(PostResponse::fromPost));
+    public Response<Page<PostResponse>> list(Pageable pageable, Authentication authentication) {
+        Page<Post> posts = postService.list(pageable);
+        return Response.success(posts.map(withEngagement(posts, authentication)));
     }
 
     @GetMapping("/my")
     public Response<Page<PostResponse>> my(Pageable pageable, Authentication authentication) {
-        return Response.success(postService.my(authentication.getName(), pageable).map(PostResponse::fromPost));
+        Page<Post> posts = postService.my(authentication.getName(), pageable);
+        return Response.success(posts.map(withEngagement(posts, authentication)));
+    }
+
+    //count=false 이면 전체 개수 없이 hasNext 만 담아 응답 (COUNT 쿼리 생략)
+    @GetMapping(params = "count=false")
+    public Response<SliceResponse<PostResponse>> listSlice(Pageable pageable, Authentication authentication) {
+        Slice<Post> posts = postService.listSlice(pageable);
+        return Response.success(SliceResponse.fromSlice(posts.map(withEngagement(posts, authentication))));
+    }
+
+    @GetMapping(value = "/my", params = "count=false")
+    public Response<SliceResponse<PostResponse>> mySlice(Pageable pageable, Authentication authentication) {
+        Slice<Post> posts = postService.mySlice(authentication.getName(), pageable);
+        return Response.success(SliceResponse.fromSlice(posts.map(withEngagement(posts, authentication))));
+    }
+
+    @GetMapping("/cursor")
+    public Response<CursorResponse<PostResponse>> list(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "20") int size,
+                                                       Authentication authentication) {
+        Slice<Post> posts = postService.list(CursorUtils.decode(cursor), CursorUtils.limit(size));
+        return Response.success(CursorResponse.fromSlice(posts.map(withEngagement(posts, authentication)), PostResponse::getId));
+    }
+
+    @GetMapping("/my/cursor")
+    public Response<CursorResponse<PostResponse>> my(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "20") int size,
+                                                     Authentication authentication) {
+        Slice<Post> posts = postService.my(authentication.getName(), CursorUtils.decode(cursor), CursorUtils.limit(size));
+        return Response.success(CursorResponse.fromSlice(posts.map(withEngagement(posts, authentication)), PostResponse::getId));
+    }
+
+    //본인과 팔로우 하는 사용자의 글 (홈 타임라인)
+    @GetMapping("/timeline")
+    public Response<CursorResponse<PostResponse>> timeline(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "20") int size,
+                                                           Authentication authentication) {
+        Slice<Post> posts = timelineService.timeline(authentication.getName(), CursorUtils.decode(cursor), CursorUtils.limit(size));
+        return Response.success(CursorResponse.fromSlice(posts.map(withEngagement(posts, authentication)), PostResponse::getId));
+    }
+
+    //최근 좋아요/댓글이 많은 게시글
+    @GetMapping("/trending")
+    public Response<List<PostResponse>> trending(@RequestParam(defaultValue = "20") int size, Authentication authentication) {
+        List<Post> posts = postService.trending(CursorUtils.limit(size));
+        return Response.success(posts.stream()
+                .map(withEngagement(posts, authentication))
+                .collect(Collectors.toList()));
+    }
+
+    //제목, 본문 검색 (관련도 순)
+    @GetMapping("/search")
+    public Response<Page<PostResponse>> search(@RequestParam String keyword, Pageable pageable, Authentication authentication) {
+        Page<Post> posts = postService.search(keyword, pageable);
+        return Response.success(posts.map(withEngagement(posts, authentication)));
+    }
+
+    //검색 색인을 db 기준으로 다시 만듦 (관리자), 색인된 게시글 수를 응답
+    @PostMapping("/search/rebuild")
+    public Response<Integer> rebuildSearchIndex() {
+        return Response.success(postService.rebuildSearchIndex());
     }
 
     @PostMapping("/{postId}/likes")
@@ -70,4 +152,26 @@ public class PostController {
     public Response<Page<CommentResponse>> comment(@PathVariable Integer postId, Pageable pageable) {
         return Response.success(postService.getComments(postId, pageable).map(CommentResponse::fromComment));
     }
+
+    @GetMapping(value = "/{postId}/comments", params = "count=false")
+    public Response<SliceResponse<CommentResponse>> commentSlice(@PathVariable Integer postId, Pageable pageable) {
+        return Response.success(SliceResponse.fromSlice(postService.getCommentSlice(postId, pageable).map(CommentResponse::fromComment)));
+    }
+
+    @GetMapping("/{postId}/comments/cursor")
+    public Response<CursorResponse<CommentResponse>> comment(@PathVariable Integer postId,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "20") int size) {
+        return Response.success(CursorResponse.fromSlice(
+                postService.getComments(postId, CursorUtils.decode(cursor), CursorUtils.limit(size)).map(CommentResponse::fromComment),
+                CommentResponse::getId));
+    }
+
+    //목록 전체의 반응 정보를 한 번에 조회해 두고 각 게시글 응답에 채우는 변환 함수
+    private Function<Post, PostResponse> withEngagement(Iterable<Post> posts, Authentication authentication) {
+        List<Integer> postIds = StreamSupport.stream(posts.spliterator(), false).map(Post::getId).collect(Collectors.toList());
+        Integer userId = authentication.getPrincipal() instanceof User ? ((User) authentication.getPrincipal()).getId() : null;
+        Map<Integer, PostEngagement> engagements = postService.getEngagements(postIds, userId);
+        return post -> PostResponse.fromPost(post, engagements.get(post.getId()));
+    }
 }
@@ -2,17 +2,26 @@ package com.example.sns.controller;
 
 import com.example.sns.controller.request.UserJoinRequest;
 import com.example.sns.controller.request.UserLoginRequest;
+import com.example.sns.controller.request.UserRoleChangeRequest;
 import com.example.sns.controller.response.AlarmResponse;
+import com.example.sns.controller.response.CursorResponse;
 import com.example.sns.controller.response.Response;
+import com.example.sns.controller.response.SliceResponse;
 import com.example.sns.controller.response.UserJoinResponse;
 import com.example.sns.controller.response.UserLoginResponse;
 import com.example.sns.model.User;
+import com.example.sns.service.AlarmService;
+import com.example.sns.service.FollowService;
 import com.example.sns.service.UserService;
+import com.example.sns.util.CursorUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -20,6 +29,8 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final FollowService followService;
+    private final AlarmService alarmService;
 
     @PostMapping("/join")
     public Response<UserJoinResponse> join(@RequestBody UserJoinRequest request) {
@@ -33,10 +44,56 @@ public class UserController {
         return Response.success(new UserLoginResponse(token));
     }
 
+    @PostMapping("/logout")
+    public Response<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String header) {
+        userService.logout(header.split(" ")[1].trim());
+        return Response.success();
+    }
+
+    //권한 변경 (관리자), 이미 발급된 토큰은 더 이상 사용할 수 없음
+    @PutMapping("/{userName}/role")
+    public Response<Void> changeRole(@PathVariable String userName, @RequestBody UserRoleChangeRequest request) {
+        userService.changeRole(userName, request.getRole());
+        return Response.success();
+    }
+
+    @PostMapping("/{userName}/follow")
+    public Response<Void> follow(@PathVariable String userName, Authentication authentication) {
+        followService.follow(authentication.getName(), userName);
+        return Response.success();
+    }
+
+    @DeleteMapping("/{userName}/follow")
+    public Response<Void> unfollow(@PathVariable String userName, Authentication authentication) {
+        followService.unfollow(authentication.getName(), userName);
+        return Response.success();
+    }
+
     @GetMapping("/alarm")
     public Response<Page<AlarmResponse>> alarm(Pageable pageable, Authentication authentication) {
         return Response.success(userService.alarmList(authentication.getName(), pageable)
                                     .map(AlarmResponse::fromAlarm)
         );
     }
+
+    //count=false 이면 전체 개수 없이 hasNext 만 담아 응답 (COUNT 쿼리 생략)
+    @GetMapping(value = "/alarm", params = "count=false")
+    public Response<SliceResponse<AlarmResponse>> alarmSlice(Pageable pageable, Authentication authentication) {
+        return Response.success(SliceResponse.fromSlice(userService.alarmSlice(authentication.getName(), pageable).map(AlarmResponse::fromAlarm)));
+    }
+
+    //새 알람을 실시간으로 받음 (SSE), "alarm" 이벤트로 알람이 전송됨
+    @GetMapping(value = "/alarm/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(Authentication authentication) {
+        return alarmService.subscribe(authentication.getName());
+    }
+
+    @GetMapping("/alarm/cursor")
+    public Response<CursorResponse<AlarmResponse>> alarm(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "20") int size,
+                                                         Authentication authentication) {
+        return Response.success(CursorResponse.fromSlice(
+                userService.alarmList(authentication.getName(), CursorUtils.decode(cursor), CursorUtils.limit(size)).map(AlarmResponse::fromAlarm),
+                AlarmResponse::getId));
+    }
 }
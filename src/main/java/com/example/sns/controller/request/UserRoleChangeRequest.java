@@ -0,0 +1,14 @@
+package com.example.sns.controller.request;
+
+import com.example.sns.model.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRoleChangeRequest {
+
+    private UserRole role;
+}
@@ -4,6 +4,7 @@ import com.example.sns.model.Alarm;
 import com.example.sns.model.AlarmArgs;
 import com.example.sns.model.AlarmType;
 import com.example.sns.model.User;
+import com.example.sns.model.projection.AlarmProjection;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -25,10 +26,23 @@ public class AlarmResponse {
                 alarm.getId(),
                 alarm.getAlarmType(),
                 alarm.getArgs(),
-                alarm.getAlarmType().getAlarmText(),
+                alarm.getAlarmType().getAlarmText(alarm.getArgs()),
                 alarm.getRegisteredAt(),
                 alarm.getUpdatedAt(),
                 alarm.getDeletedAt()
         );
     }
+
+    //실시간 전송(SSE)에서는 알람을 받는 사용자 없이 저장된 알람으로 만듦
+    public static AlarmResponse fromProjection(AlarmProjection projection) {
+        return new AlarmResponse(
+                projection.getId(),
+                projection.getAlarmType(),
+                projection.getArgs(),
+                projection.getAlarmType().getAlarmText(projection.getArgs()),
+                projection.getRegisteredAt(),
+                projection.getUpdatedAt(),
+                projection.getDeletedAt()
+        );
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.sns.controller.response;
+
+import com.example.sns.util.CursorUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@AllArgsConstructor
+public class CursorResponse<T> {
+
+    private List<T> content;
+    private String nextCursor; //다음 페이지 요청 시 그대로 전달, 마지막 페이지면 null
+    private boolean hasNext;
+
+    public static <T> CursorResponse<T> fromSlice(Slice<T> slice, Function<T, Integer> idExtractor) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? CursorUtils.encode(idExtractor.apply(content.get(content.size() - 1)))
+                : null;
+        return new CursorResponse<>(content, nextCursor, slice.hasNext());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.sns.controller.response;
 
 import com.example.sns.model.Post;
+import com.example.sns.model.PostEngagement;
 import com.example.sns.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -17,8 +18,16 @@ public class PostResponse {
 
     private String body;
 
+    private String excerpt;
+
     private UserResponse user;
 
+    private Integer likeCount;
+
+    private Integer commentCount;
+
+    private Boolean likedByMe; //목록 응답에서만 채워짐
+
     private Timestamp registeredAt;
 
     private Timestamp updatedAt;
@@ -26,11 +35,20 @@ public class PostResponse {
     private Timestamp deletedAt;
 
     public static PostResponse fromPost(Post post) {
+        return fromPost(post, null);
+    }
+
+    //목록 응답은 조회 시점의 좋아요 수, 댓글 수와 좋아요 여부를 채움, 없으면(조회 이후 삭제된 글 등) 게시글에 담긴 수를 사용함
+    public static PostResponse fromPost(Post post, PostEngagement engagement) {
         return new PostResponse(
                 post.getId(),
                 post.getTitle(),
                 post.getBody(),
+                post.getExcerpt(),
                 UserResponse.fromUser(post.getUser()),
+                engagement == null ? post.getLikeCount() : engagement.getLikeCount(),
+                engagement == null ? post.getCommentCount() : engagement.getCommentCount(),
+                engagement == null ? null : engagement.getLikedByMe(),
                 post.getRegisteredAt(),
                 post.getUpdatedAt(),
                 post.getDeletedAt()
@@ -0,0 +1,27 @@
+package com.example.sns.controller.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+//전체 개수(COUNT 쿼리) 없이 다음 페이지 존재 여부만 담는 응답
+@Getter
+@AllArgsConstructor
+public class SliceResponse<T> {
+
+    private List<T> content;
+    private int number;
+    private int size;
+    private boolean hasNext;
+
+    public static <T> SliceResponse<T> fromSlice(Slice<T> slice) {
+        return new SliceResponse<>(
+                slice.getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                slice.hasNext()
+        );
+    }
+}
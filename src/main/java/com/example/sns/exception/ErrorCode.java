@@ -16,6 +16,11 @@ public enum ErrorCode {
     INVALID_PERMISSION(HttpStatus.UNAUTHORIZED, "Permission is invalid"),
     DATABASE_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "Error occurs in database"),
     ALREADY_LIKED(HttpStatus.CONFLICT, "User already liked the post"),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "Cursor is invalid"),
+    TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "Too many requests, try again later"),
+    INVALID_FOLLOW(HttpStatus.BAD_REQUEST, "User cannot follow oneself"),
+    ALREADY_FOLLOWED(HttpStatus.CONFLICT, "User already followed the user"),
+    FOLLOW_NOT_FOUND(HttpStatus.NOT_FOUND, "Follow not founded"),
 
     INTERNAL_SERVER_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error")
 
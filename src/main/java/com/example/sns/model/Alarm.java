@@ -1,6 +1,7 @@
 package com.example.sns.model;
 
 import com.example.sns.model.entity.AlarmEntity;
+import com.example.sns.model.projection.AlarmProjection;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -28,4 +29,17 @@ public class Alarm {
                 entity.getDeletedAt()
         );
     }
+
+    //알람을 받는 사용자는 조회를 요청한 사용자이므로 따로 조회하지 않고 넘겨받음
+    public static Alarm fromProjection(AlarmProjection projection, User user) {
+        return new Alarm(
+                projection.getId(),
+                user,
+                projection.getAlarmType(),
+                projection.getArgs(),
+                projection.getRegisteredAt(),
+                projection.getUpdatedAt(),
+                projection.getDeletedAt()
+        );
+    }
 }
@@ -2,12 +2,24 @@ package com.example.sns.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class AlarmArgs {
 
-    private Integer fromUserId; //알람을 보낸 유저, 알람을 발생시킨 유저
+    private Integer fromUserId; //알람을 보낸 유저, 알람을 발생시킨 유저 (합쳐진 알람이면 가장 최근 유저)
 
     private Integer targetId;
+
+    private Integer count; //합쳐진 알람 수
+
+    private List<Integer> recentUserIds; //최근에 알람을 발생시킨 유저, 최신 순
+
+    public AlarmArgs(Integer fromUserId, Integer targetId) {
+        this(fromUserId, targetId, 1, List.of(fromUserId));
+    }
 }
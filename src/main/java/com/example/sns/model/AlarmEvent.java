@@ -0,0 +1,16 @@
+package com.example.sns.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//좋아요/댓글 트랜잭션이 커밋된 이후 AlarmWriteService 가 받아서 묶음으로 저장함
+@Getter
+@AllArgsConstructor
+public class AlarmEvent {
+
+    private Integer userId; //알람을 받는 사람
+
+    private AlarmType alarmType;
+
+    private AlarmArgs args;
+}
@@ -6,9 +6,17 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 @Getter
 public enum AlarmType {
-    NEW_COMMENT_ON_POST("new comment!"),
-    NEW_LIKE_ON_POST("new like!"),
+    NEW_COMMENT_ON_POST("new comment!", "%d new comments!"),
+    NEW_LIKE_ON_POST("new like!", "%d new likes!"),
     ;
 
     private final String alarmText;
+    private final String aggregatedText; //여러 알람이 하나로 합쳐진 경우
+
+    public String getAlarmText(AlarmArgs args) {
+        if (args == null || args.getCount() == null || args.getCount() <= 1) {
+            return alarmText;
+        }
+        return String.format(aggregatedText, args.getCount());
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.sns.model;
 
 import com.example.sns.model.entity.CommentEntity;
+import com.example.sns.model.projection.CommentProjection;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -35,4 +36,16 @@ public class Comment {
                 entity.getDeletedAt()
         );
     }
+
+    public static Comment fromProjection(CommentProjection projection) {
+        return new Comment(
+                projection.getId(),
+                projection.getComment(),
+                projection.getUserName(),
+                projection.getPostId(),
+                projection.getRegisteredAt(),
+                projection.getUpdatedAt(),
+                projection.getDeletedAt()
+        );
+    }
 }
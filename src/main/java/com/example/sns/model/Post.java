@@ -1,6 +1,7 @@
 package com.example.sns.model;
 
 import com.example.sns.model.entity.PostEntity;
+import com.example.sns.model.projection.PostProjection;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -14,10 +15,16 @@ public class Post {
 
     private String title;
 
-    private String body;
+    private String body; //목록 조회 시에는 null, 상세 조회에서만 채워짐
+
+    private String excerpt;
 
     private User user;
 
+    private Integer likeCount;
+
+    private Integer commentCount;
+
     private Timestamp registeredAt;
 
     private Timestamp updatedAt;
@@ -29,10 +36,29 @@ public class Post {
                 entity.getId(),
                 entity.getTitle(),
                 entity.getBody(),
+                entity.getExcerpt(),
                 User.fromEntity(entity.getUser()),
+                entity.getLikeCount(),
+                entity.getCommentCount(),
                 entity.getRegisteredAt(),
                 entity.getUpdatedAt(),
                 entity.getDeletedAt()
         );
     }
+
+    //목록 응답에는 작성자의 id, 이름만 필요하므로 권한 등 나머지 사용자 정보는 비워둠
+    public static Post fromProjection(PostProjection projection) {
+        return new Post(
+                projection.getId(),
+                projection.getTitle(),
+                null,
+                projection.getExcerpt(),
+                User.of(projection.getUserId(), projection.getUserName(), null),
+                projection.getLikeCount(),
+                projection.getCommentCount(),
+                projection.getRegisteredAt(),
+                projection.getUpdatedAt(),
+                projection.getDeletedAt()
+        );
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.sns.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//목록 응답에 함께 내려주는 게시글 반응 정보
+@Getter
+@AllArgsConstructor
+public class PostEngagement {
+
+    private Integer likeCount;
+
+    private Integer commentCount;
+
+    private Boolean likedByMe;
+}
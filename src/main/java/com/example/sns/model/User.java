@@ -1,8 +1,11 @@
 package com.example.sns.model;
 
 import com.example.sns.model.entity.UserEntity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,11 +16,14 @@ import java.util.List;
 
 //DTO
 @AllArgsConstructor
+@NoArgsConstructor
 @Getter
+@JsonIgnoreProperties(ignoreUnknown = true) //UserDetails 구현으로 생기는 getter(authorities, enabled 등)는 역직렬화 시 무시
 public class User implements UserDetails {
 
     private Integer id;
     private String userName;
+    @JsonIgnore //캐시(redis)에 비밀번호 해시가 저장되지 않도록 제외
     private String password;
     private UserRole userRole;
     private Timestamp registeredAt;
@@ -36,6 +42,11 @@ public class User implements UserDetails {
         );
     }
 
+    //stateless 토큰의 클레임으로 만드는 인증 정보, 비밀번호와 시간 정보는 포함하지 않음
+    public static User of(Integer id, String userName, UserRole userRole) {
+        return new User(id, userName, null, userRole, null, null, null);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() { //사용자의 권한 목록 반환
         return List.of(new SimpleGrantedAuthority(this.getUserRole().toString()));
@@ -0,0 +1,14 @@
+package com.example.sns.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//stateless 토큰 검증에 필요한 사용자 상태만 담은 읽기 전용 DTO
+@Getter
+@AllArgsConstructor
+public class UserTokenVersion {
+
+    private Integer userId;
+    private UserRole role;
+    private Integer tokenVersion;
+}
@@ -16,7 +16,9 @@ import java.sql.Timestamp;
 import java.time.Instant;
 
 @Entity
-@Table(name = "alarm")
+@Table(name = "alarm", indexes = {
+        @Index(name = "idx_alarm_user_target", columnList = "user_id, target_id, registered_at") //합칠 알람 조회용
+})
 @Getter
 @Setter
 @SQLDelete(sql = "UPDATE alarm SET deleted_at = NOW() where id=?")
@@ -28,8 +30,8 @@ public class AlarmEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @ManyToOne
-    @JoinColumn(name = "user_id")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)) //파티션 테이블은 외래 키를 지원하지 않음 (AlarmPartitionRepository)
     private UserEntity user; //알람을 받는 사람
 
     @Enumerated(EnumType.STRING)
@@ -39,6 +41,9 @@ public class AlarmEntity {
     @Column(columnDefinition = "json")
     private AlarmArgs args;
 
+    @Column(name = "target_id")
+    private Integer targetId; //args.targetId, 같은 대상의 알람을 합칠 때 조회 조건으로 사용
+
     @Column(name = "registered_at")
     private Timestamp registeredAt; //등록된 시간
 
@@ -57,12 +62,4 @@ public class AlarmEntity {
     void updatedAt() {
         this.updatedAt = Timestamp.from(Instant.now());
     }
-
-    public static AlarmEntity of(UserEntity userEntity, AlarmType alarmType, AlarmArgs args) {
-        AlarmEntity entity = new AlarmEntity();
-        entity.setUser(userEntity);
-        entity.setAlarmType(alarmType);
-        entity.setArgs(args);
-        return entity;
-    }
 }
@@ -0,0 +1,68 @@
+package com.example.sns.model.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.Where;
+
+import javax.persistence.*;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+@Entity
+@Table(name = "follow", indexes = {
+        @Index(name = "idx_follow_follower", columnList = "follower_id"),
+        @Index(name = "idx_follow_following", columnList = "following_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = FollowEntity.UNIQUE_FOLLOWER_FOLLOWING, columnNames = {"follower_id", "following_id", "active"})
+})
+@Getter
+@Setter
+@SQLDelete(sql = "UPDATE follow SET deleted_at = NOW() where id=?")
+@Where(clause = "deleted_at is NULL")
+public class FollowEntity {
+
+    public static final String UNIQUE_FOLLOWER_FOLLOWING = "uk_follow_follower_following_active";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "follower_id")
+    private UserEntity follower; //팔로우 하는 사람
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "following_id")
+    private UserEntity following; //팔로우 받는 사람
+
+    //삭제되지 않은 팔로우는 1, 삭제된 팔로우는 NULL 인 생성 컬럼, 삭제되지 않은 팔로우만 중복을 막음
+    @Column(name = "active", columnDefinition = "tinyint as (case when deleted_at is null then 1 end)", insertable = false, updatable = false)
+    private Integer active;
+
+    @Column(name = "registered_at")
+    private Timestamp registeredAt; //등록된 시간
+
+    @Column(name = "updated_at")
+    private Timestamp updatedAt; //수정된 시간
+
+    @Column(name = "deleted_at")
+    private Timestamp deletedAt; //삭제된 시간
+
+    @PrePersist
+    void registeredAt() {
+        this.registeredAt = Timestamp.from(Instant.now());
+    }
+
+    @PreUpdate
+    void updatedAt() {
+        this.updatedAt = Timestamp.from(Instant.now());
+    }
+
+    public static FollowEntity of(UserEntity follower, UserEntity following) {
+        FollowEntity entity = new FollowEntity();
+        entity.setFollower(follower);
+        entity.setFollowing(following);
+        return entity;
+    }
+}
@@ -10,25 +10,34 @@ import java.sql.Timestamp;
 import java.time.Instant;
 
 @Entity
-@Table(name = "\"like\"")
+@Table(name = "\"like\"", uniqueConstraints = {
+        @UniqueConstraint(name = LikeEntity.UNIQUE_USER_POST, columnNames = {"user_id", "post_id", "active"})
+})
 @Getter
 @Setter
 @SQLDelete(sql = "UPDATE \"like\" SET deleted_at = NOW() where id=?")
 @Where(clause = "deleted_at is NULL")
 public class LikeEntity {
 
+    public static final String UNIQUE_USER_POST = "uk_like_user_post_active";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private UserEntity user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id")
     private PostEntity post;
 
+    //삭제되지 않은 좋아요는 1, 삭제된 좋아요는 NULL 인 생성 컬럼
+    //unique 제약은 NULL 끼리 비교하지 않으므로 삭제되지 않은 좋아요만 (user_id, post_id) 중복을 막음
+    @Column(name = "active", columnDefinition = "tinyint as (case when deleted_at is null then 1 end)", insertable = false, updatable = false)
+    private Integer active;
+
     @Column(name = "registered_at")
     private Timestamp registeredAt; //등록된 시간
 
@@ -17,6 +17,8 @@ import java.time.Instant;
 @Where(clause = "deleted_at is NULL") //null인 행만 가져오기 == 삭제되지 않은 항목만 검색
 public class PostEntity {
 
+    public static final int EXCERPT_LENGTH = 150;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -26,7 +28,19 @@ public class PostEntity {
     @Column(name = "body", columnDefinition = "TEXT")
     private String body;
 
-    @ManyToOne
+    //목록 응답에 사용하는 본문 앞부분, 작성/수정 시 함께 저장해 목록 조회 시 본문(TEXT)을 읽지 않음
+    @Column(name = "excerpt", length = EXCERPT_LENGTH)
+    private String excerpt;
+
+    //좋아요/댓글 수, 동시 요청에도 값이 유실되지 않도록 UPDATE ... SET x = x + 1 로만 변경함
+    //엔티티 저장(수정) 시 읽어온 이전 값으로 덮어쓰지 않도록 updatable = false
+    @Column(name = "like_count", columnDefinition = "integer default 0", updatable = false)
+    private Integer likeCount = 0;
+
+    @Column(name = "comment_count", columnDefinition = "integer default 0", updatable = false)
+    private Integer commentCount = 0;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private UserEntity user;
 
@@ -53,8 +67,17 @@ public class PostEntity {
         PostEntity entity = new PostEntity();
         entity.setTitle(title);
         entity.setBody(body);
+        entity.setExcerpt(excerptOf(body));
         entity.setUser(userEntity);
         return entity;
     }
 
+    //서로게이트 쌍이 잘리지 않도록 코드 포인트 기준으로 자름
+    public static String excerptOf(String body) {
+        if (body == null || body.codePointCount(0, body.length()) <= EXCERPT_LENGTH) {
+            return body;
+        }
+        return body.substring(0, body.offsetByCodePoints(0, EXCERPT_LENGTH));
+    }
+
 }
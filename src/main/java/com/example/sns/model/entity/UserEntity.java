@@ -21,7 +21,7 @@ public class UserEntity {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(name = "user_name")
+    @Column(name = "user_name", unique = true)
     private String userName;
 
     private String password;
@@ -29,6 +29,12 @@ public class UserEntity {
     @Enumerated(EnumType.STRING)
     private UserRole role = UserRole.USER;
 
+    @Column(name = "token_version", columnDefinition = "integer default 0")
+    private Integer tokenVersion = 0; //증가시키면 이전에 발급된 stateless 토큰이 모두 무효화됨
+
+    @Column(name = "follower_count", columnDefinition = "integer default 0")
+    private Integer followerCount = 0;
+
     @Column(name = "registered_at")
     private Timestamp registeredAt; //등록된 시간
 
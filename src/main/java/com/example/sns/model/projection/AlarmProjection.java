@@ -0,0 +1,38 @@
+package com.example.sns.model.projection;
+
+import com.example.sns.model.AlarmArgs;
+import com.example.sns.model.AlarmType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+//알람 목록 조회용 읽기 전용 DTO, 알람을 받는 사용자는 조회하지 않음
+@Getter
+@NoArgsConstructor
+public class AlarmProjection {
+
+    private Integer id;
+
+    private AlarmType alarmType;
+
+    private AlarmArgs args;
+
+    private Timestamp registeredAt;
+
+    private Timestamp updatedAt;
+
+    private Timestamp deletedAt;
+
+    //json 컬럼(args)은 Object 타입으로 넘어옴
+    public AlarmProjection(Integer id, AlarmType alarmType, Object args,
+                           Date registeredAt, Date updatedAt, Date deletedAt) {
+        this.id = id;
+        this.alarmType = alarmType;
+        this.args = (AlarmArgs) args;
+        this.registeredAt = (Timestamp) registeredAt;
+        this.updatedAt = (Timestamp) updatedAt;
+        this.deletedAt = (Timestamp) deletedAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.sns.model.projection;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+//댓글 목록 조회용 읽기 전용 DTO
+@Getter
+@NoArgsConstructor
+public class CommentProjection {
+
+    private Integer id;
+
+    private String comment;
+
+    private String userName;
+
+    private Integer postId;
+
+    private Timestamp registeredAt;
+
+    private Timestamp updatedAt;
+
+    private Timestamp deletedAt;
+
+    public CommentProjection(Integer id, String comment, String userName, Integer postId,
+                             Date registeredAt, Date updatedAt, Date deletedAt) {
+        this.id = id;
+        this.comment = comment;
+        this.userName = userName;
+        this.postId = postId;
+        this.registeredAt = (Timestamp) registeredAt;
+        this.updatedAt = (Timestamp) updatedAt;
+        this.deletedAt = (Timestamp) deletedAt;
+    }
+}
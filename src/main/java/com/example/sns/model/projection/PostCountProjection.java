@@ -0,0 +1,16 @@
+package com.example.sns.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//게시글의 좋아요/댓글 수 카운터
+@Getter
+@AllArgsConstructor
+public class PostCountProjection {
+
+    private Integer id;
+
+    private Integer likeCount;
+
+    private Integer commentCount;
+}
@@ -0,0 +1,16 @@
+package com.example.sns.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//검색 색인에 넣을 게시글 내용
+@Getter
+@AllArgsConstructor
+public class PostDocument {
+
+    private Integer id;
+
+    private String title;
+
+    private String body;
+}
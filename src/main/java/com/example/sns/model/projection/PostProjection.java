@@ -0,0 +1,48 @@
+package com.example.sns.model.projection;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+//게시글 목록 조회용 읽기 전용 DTO, 엔티티를 거치지 않고 응답에 필요한 컬럼만 JPQL 생성자 표현식으로 조회함
+@Getter
+@NoArgsConstructor
+public class PostProjection {
+
+    private Integer id;
+
+    private String title;
+
+    private String excerpt;
+
+    private Integer userId;
+
+    private String userName;
+
+    private Integer likeCount;
+
+    private Integer commentCount;
+
+    private Timestamp registeredAt;
+
+    private Timestamp updatedAt;
+
+    private Timestamp deletedAt;
+
+    //JPQL 생성자 표현식은 timestamp 컬럼을 java.util.Date 타입으로 넘기므로 (실제 값은 Timestamp) 받아서 변환함
+    public PostProjection(Integer id, String title, String excerpt, Integer userId, String userName,
+                          Integer likeCount, Integer commentCount, Date registeredAt, Date updatedAt, Date deletedAt) {
+        this.id = id;
+        this.title = title;
+        this.excerpt = excerpt;
+        this.userId = userId;
+        this.userName = userName;
+        this.likeCount = likeCount;
+        this.commentCount = commentCount;
+        this.registeredAt = (Timestamp) registeredAt;
+        this.updatedAt = (Timestamp) updatedAt;
+        this.deletedAt = (Timestamp) deletedAt;
+    }
+}
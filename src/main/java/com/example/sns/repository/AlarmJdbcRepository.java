@@ -0,0 +1,204 @@
+package com.example.sns.repository;
+
+import com.example.sns.model.AlarmArgs;
+import com.example.sns.model.AlarmEvent;
+import com.example.sns.model.AlarmType;
+import com.example.sns.model.projection.AlarmProjection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//알람을 JPA 엔티티를 거치지 않고 JDBC batch 로 한 번에 저장
+//IDENTITY 생성 전략에서는 Hibernate가 insert 를 묶지 않으므로 직접 실행함
+//같은 사용자, 알람 종류, 대상의 알람은 처음 알람이 등록된 뒤 coalesce-window 동안 하나로 합쳐 개수와 최근 사용자만 갱신함
+@Repository
+public class AlarmJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO alarm (user_id, alarm_type, target_id, args, registered_at) " +
+            "VALUES (:userId, :alarmType, :targetId, :args, :now)";
+
+    private static final String UPDATE_SQL = "UPDATE alarm SET args = :args, updated_at = :now WHERE id = :id";
+
+    //알람을 받는 사용자 행을 id 순서로 잠가, 같은 사용자의 알람을 합치는 다른 서버는 커밋될 때까지 기다림 (개수가 유실되지 않음)
+    //합칠 알람이 없을 때 alarm 테이블을 FOR UPDATE 로 조회하면 gap lock 만 잡혀 두 서버가 서로의 insert 를 기다리는 deadlock 이 생기므로 사용하지 않음
+    private static final String LOCK_USERS_SQL = "SELECT id FROM user WHERE id IN (:userIds) ORDER BY id FOR UPDATE";
+
+    private static final String SELECT_RECENT_SQL = "SELECT id, user_id, alarm_type, target_id, args, registered_at FROM alarm " +
+            "WHERE user_id IN (:userIds) AND target_id IN (:targetIds) AND registered_at >= :since AND deleted_at IS NULL " +
+            "ORDER BY id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration window;
+    private final int recentUserCount;
+
+    public AlarmJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               @Value("${sns.alarm.coalesce.window:PT1H}") Duration window,
+                               @Value("${sns.alarm.coalesce.recent-user-count:3}") int recentUserCount) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.window = window;
+        this.recentUserCount = recentUserCount;
+    }
+
+    //READ COMMITTED 트랜잭션 안에서 호출해야 함 (잠금을 얻은 뒤 다른 서버가 커밋한 알람을 읽음)
+    //합친 결과 key 별로 저장된 알람의 id와 내용을 반환
+    public List<SavedAlarm> saveAll(List<AlarmEvent> alarms) {
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp since = Timestamp.from(now.toInstant().minus(window));
+
+        //묶음 안에서 먼저 합친 뒤, 이미 저장된 알람이 있으면 갱신하고 없으면 새로 저장
+        Map<String, AlarmEvent> merged = new LinkedHashMap<>();
+        alarms.forEach(it -> merged.merge(key(it), it, this::merge));
+        lockUsers(merged.values());
+        Map<String, AlarmProjection> existing = findRecent(merged.values(), since);
+
+        List<AlarmEvent> inserted = new ArrayList<>();
+        Map<String, AlarmProjection> updated = new HashMap<>();
+        List<MapSqlParameterSource> inserts = new ArrayList<>();
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        merged.forEach((key, alarm) -> {
+            AlarmProjection current = existing.get(key);
+            if (current == null) {
+                inserted.add(alarm);
+                inserts.add(new MapSqlParameterSource()
+                        .addValue("userId", alarm.getUserId())
+                        .addValue("alarmType", alarm.getAlarmType().name())
+                        .addValue("targetId", alarm.getArgs().getTargetId())
+                        .addValue("args", toJson(alarm.getArgs()))
+                        .addValue("now", now));
+            } else {
+                AlarmArgs args = merge(current.getArgs(), alarm.getArgs());
+                updated.put(key, new AlarmProjection(current.getId(), alarm.getAlarmType(), args, current.getRegisteredAt(), now, null));
+                updates.add(new MapSqlParameterSource()
+                        .addValue("id", current.getId())
+                        .addValue("args", toJson(args))
+                        .addValue("now", now));
+            }
+        });
+        Map<String, AlarmProjection> created = Map.of();
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts.toArray(MapSqlParameterSource[]::new));
+            //batch insert 는 생성된 id를 돌려주지 않으므로 다시 조회함, 사용자 행을 잠그고 있어 key 별로 가장 최근 알람이 방금 저장한 알람임
+            created = findRecent(inserted, since);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates.toArray(MapSqlParameterSource[]::new));
+        }
+
+        List<SavedAlarm> saved = new ArrayList<>();
+        for (Map.Entry<String, AlarmEvent> entry : merged.entrySet()) {
+            boolean isNew = !existing.containsKey(entry.getKey());
+            saved.add(new SavedAlarm(entry.getValue().getUserId(), isNew, (isNew ? created : updated).get(entry.getKey())));
+        }
+        return saved;
+    }
+
+    private void lockUsers(Collection<AlarmEvent> alarms) {
+        Set<Integer> userIds = alarms.stream().map(AlarmEvent::getUserId).collect(Collectors.toSet());
+        jdbcTemplate.queryForList(LOCK_USERS_SQL, new MapSqlParameterSource("userIds", userIds), Integer.class);
+    }
+
+    //key 별로 가장 최근에 등록된 알람
+    private Map<String, AlarmProjection> findRecent(Collection<AlarmEvent> alarms, Timestamp since) {
+        Set<Integer> userIds = new HashSet<>();
+        Set<Integer> targetIds = new HashSet<>();
+        alarms.forEach(it -> {
+            userIds.add(it.getUserId());
+            targetIds.add(it.getArgs().getTargetId());
+        });
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userIds", userIds)
+                .addValue("targetIds", targetIds)
+                .addValue("since", since);
+
+        Map<String, AlarmProjection> recent = new HashMap<>();
+        jdbcTemplate.query(SELECT_RECENT_SQL, params, rs -> {
+            AlarmType alarmType = AlarmType.valueOf(rs.getString("alarm_type"));
+            recent.put(key(rs.getInt("user_id"), alarmType, rs.getInt("target_id")), new AlarmProjection(
+                    rs.getInt("id"), alarmType, fromJson(rs.getBytes("args")), rs.getTimestamp("registered_at"), null, null));
+        });
+        return recent;
+    }
+
+    private AlarmEvent merge(AlarmEvent older, AlarmEvent newer) {
+        return new AlarmEvent(newer.getUserId(), newer.getAlarmType(), merge(older.getArgs(), newer.getArgs()));
+    }
+
+    //newer 를 older 에 합침, 이전 버전에서 저장되어 개수가 없는 알람은 1개로 계산
+    private AlarmArgs merge(AlarmArgs olderArgs, AlarmArgs newerArgs) {
+        List<Integer> recentUserIds = Stream.concat(recentUserIds(newerArgs).stream(), recentUserIds(olderArgs).stream())
+                .distinct()
+                .limit(recentUserCount)
+                .collect(Collectors.toList());
+        return new AlarmArgs(
+                newerArgs.getFromUserId(),
+                newerArgs.getTargetId(),
+                count(olderArgs) + count(newerArgs),
+                recentUserIds);
+    }
+
+    private static int count(AlarmArgs args) {
+        return args.getCount() == null ? 1 : args.getCount();
+    }
+
+    private static List<Integer> recentUserIds(AlarmArgs args) {
+        return args.getRecentUserIds() == null ? List.of(args.getFromUserId()) : args.getRecentUserIds();
+    }
+
+    private static String key(AlarmEvent alarm) {
+        return key(alarm.getUserId(), alarm.getAlarmType(), alarm.getArgs().getTargetId());
+    }
+
+    private static String key(Integer userId, AlarmType alarmType, Integer targetId) {
+        return userId + ":" + alarmType + ":" + targetId;
+    }
+
+    //json 컬럼에 문자열로 넣으면 H2 에서는 json 문자열 값으로 저장되므로 UTF-8 바이트로 넣음
+    private byte[] toJson(AlarmArgs args) {
+        try {
+            return objectMapper.writeValueAsBytes(args);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private AlarmArgs fromJson(byte[] json) {
+        try {
+            return objectMapper.readValue(json, AlarmArgs.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    //기존 알람에 합쳐진 경우 inserted 는 false
+    @Getter
+    @AllArgsConstructor
+    public static class SavedAlarm {
+
+        private final Integer userId; //알람을 받는 사람
+        private final boolean inserted;
+        private final AlarmProjection alarm;
+    }
+}
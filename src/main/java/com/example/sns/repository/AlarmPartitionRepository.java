@@ -0,0 +1,202 @@
+package com.example.sns.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+//알람 테이블을 등록일(registered_at) 기준 일 단위 RANGE 파티션으로 나누고, 보관 기간이 지난 파티션을 통째로 삭제 (MariaDB)
+//행 단위 삭제 없이 공간이 회수되고, 알람 조회는 보관 기간 조건으로 최근 파티션만 읽음 (partition pruning)
+//파티션 테이블은 외래 키를 지원하지 않고 모든 unique key 에 파티션 컬럼이 있어야 하므로 처음 적용할 때
+//user_id 외래 키를 삭제하고 기본 키를 (id, registered_at) 으로 바꿈, 기존 알람은 하나의 파티션에 남았다가 보관 기간이 지나면 삭제됨
+//registered_at 은 JDBC 드라이버가 JVM 시간대로 변환해 저장한 DATETIME 이고 TO_DAYS 는 DATETIME 에 db 세션 시간대를 적용하지 않으므로,
+//날짜 계산은 모두 JVM 시간대(생성 시 고정)로 하고 db의 NOW() 는 사용하지 않음
+@Slf4j
+@Repository
+public class AlarmPartitionRepository {
+
+    private static final String TABLE = "alarm";
+    private static final String MAX_PARTITION = "pmax";
+    private static final String LOCK_NAME = "sns_alarm_partition"; //여러 서버가 동시에 DDL 을 실행하지 않도록 사용하는 db 락
+    private static final long TO_DAYS_EPOCH = 719528; //MariaDB TO_DAYS('1970-01-01')
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private final DatabaseLockRepository databaseLockRepository;
+    private final boolean enabled;
+    private final Period retention;
+    private final int premakeDays;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public AlarmPartitionRepository(DatabaseLockRepository databaseLockRepository,
+                                    @Value("${sns.alarm.partition.enabled:false}") boolean enabled,
+                                    @Value("${sns.alarm.partition.retention:P90D}") Period retention,
+                                    @Value("${sns.alarm.partition.premake-days:7}") int premakeDays) {
+        this.databaseLockRepository = databaseLockRepository;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.premakeDays = premakeDays;
+    }
+
+    //이 시각 이후에 등록된 알람만 조회함, 파티션을 사용하지 않으면 모든 알람
+    public Timestamp getRetentionStart() {
+        if (!enabled) {
+            return new Timestamp(0);
+        }
+        return Timestamp.valueOf(today().minus(retention).atStartOfDay());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${sns.alarm.partition.maintenance-interval-ms:3600000}", initialDelayString = "${sns.alarm.partition.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            databaseLockRepository.executeWithLock(LOCK_NAME, this::maintain);
+        } catch (DataAccessException e) {
+            log.warn("Failed to maintain alarm partitions. {}", e.toString());
+        }
+    }
+
+    //자정이 지나는 중에도 같은 날짜로 계산하도록 오늘 날짜를 한 번만 구함
+    private void maintain(JdbcTemplate template) {
+        LocalDate today = today();
+        List<Partition> partitions = findPartitions(template);
+        if (partitions.isEmpty()) {
+            partition(template, today);
+            partitions = findPartitions(template);
+        }
+        addFuturePartitions(template, partitions, today);
+        dropExpiredPartitions(template, partitions, today);
+    }
+
+    private void partition(JdbcTemplate template, LocalDate today) {
+        log.info("Partitioning {} table by registered_at", TABLE);
+
+        template.queryForList("SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS " +
+                        "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = ?", String.class, TABLE)
+                .forEach(it -> template.execute("ALTER TABLE " + TABLE + " DROP FOREIGN KEY " + it));
+        String columnType = template.queryForObject("SELECT COLUMN_TYPE FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = 'registered_at'", String.class, TABLE);
+        template.update("UPDATE " + TABLE + " SET registered_at = ? WHERE registered_at IS NULL", Timestamp.valueOf(LocalDateTime.now(zone)));
+        template.execute("ALTER TABLE " + TABLE + " MODIFY registered_at " + columnType + " NOT NULL, " +
+                "DROP PRIMARY KEY, ADD PRIMARY KEY (id, registered_at)");
+        template.execute("ALTER TABLE " + TABLE + " PARTITION BY RANGE (TO_DAYS(registered_at)) (" +
+                String.join(", ", initialDefinitions(today, premakeDays)) + ")");
+    }
+
+    private void addFuturePartitions(JdbcTemplate template, List<Partition> partitions, LocalDate today) {
+        List<String> definitions = futureDefinitions(partitions, today, premakeDays);
+        if (definitions.isEmpty()) {
+            return;
+        }
+        template.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO (" + String.join(", ", definitions) + ")");
+        log.info("Added {} alarm partitions", definitions.size() - 1);
+    }
+
+    private void dropExpiredPartitions(JdbcTemplate template, List<Partition> partitions, LocalDate today) {
+        List<String> expired = expiredPartitions(partitions, today, retention);
+        if (expired.isEmpty()) {
+            return;
+        }
+        template.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + String.join(", ", expired));
+        log.info("Dropped expired alarm partitions {}", expired);
+    }
+
+    //처음 파티션을 나눌 때 : 오늘 이전의 알람은 모두 어제 파티션에 넣고, 오늘부터 premake-days 이후 날짜까지 만듦
+    static List<String> initialDefinitions(LocalDate today, int premakeDays) {
+        List<String> definitions = new ArrayList<>();
+        definitions.add(definition(today.minusDays(1), today));
+        for (LocalDate day = today; !day.isAfter(today.plusDays(premakeDays)); day = day.plusDays(1)) {
+            definitions.add(definition(day, day.plusDays(1)));
+        }
+        definitions.add(maxDefinition());
+        return definitions;
+    }
+
+    //마지막 파티션 이후부터 premake-days 이후 날짜까지 pmax 를 나눌 파티션, 비어 있는 pmax 를 나누므로 데이터 이동이 없음
+    //서버가 며칠 동안 실행되지 않았어도 빠진 날짜부터 만듦, 추가할 파티션이 없으면 빈 목록
+    static List<String> futureDefinitions(List<Partition> partitions, LocalDate today, int premakeDays) {
+        long lastBound = partitions.stream().filter(it -> !it.isMax()).mapToLong(Partition::getBound).max().orElse(toDays(today));
+        LocalDate until = today.plusDays(premakeDays + 1);
+
+        List<String> definitions = new ArrayList<>();
+        for (LocalDate day = fromDays(lastBound); day.isBefore(until); day = day.plusDays(1)) {
+            definitions.add(definition(day, day.plusDays(1)));
+        }
+        if (!definitions.isEmpty()) {
+            definitions.add(maxDefinition());
+        }
+        return definitions;
+    }
+
+    //파티션의 모든 알람이 보관 기간보다 오래된 파티션
+    static List<String> expiredPartitions(List<Partition> partitions, LocalDate today, Period retention) {
+        long retentionStart = toDays(today.minus(retention));
+        return partitions.stream()
+                .filter(it -> !it.isMax() && it.getBound() <= retentionStart)
+                .map(Partition::getName)
+                .collect(Collectors.toList());
+    }
+
+    //파티션이 없으면 빈 목록
+    private List<Partition> findPartitions(JdbcTemplate template) {
+        return template.query("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new Partition(rs.getString(1), rs.getString(2)), TABLE);
+    }
+
+    //day 의 알람을 담는 파티션
+    private static String definition(LocalDate day, LocalDate nextDay) {
+        return "PARTITION " + day.format(NAME_FORMAT) + " VALUES LESS THAN (" + toDays(nextDay) + ")";
+    }
+
+    private static String maxDefinition() {
+        return "PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE";
+    }
+
+    //MariaDB TO_DAYS
+    static long toDays(LocalDate date) {
+        return date.toEpochDay() + TO_DAYS_EPOCH;
+    }
+
+    private static LocalDate fromDays(long days) {
+        return LocalDate.ofEpochDay(days - TO_DAYS_EPOCH);
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(zone);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Partition {
+
+        private final String name;
+        private final String description; //VALUES LESS THAN 값 (TO_DAYS), pmax 는 MAXVALUE
+
+        boolean isMax() {
+            return MAX_PARTITION.equals(name);
+        }
+
+        long getBound() {
+            return Long.parseLong(description);
+        }
+    }
+}
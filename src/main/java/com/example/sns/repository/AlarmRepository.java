@@ -2,11 +2,27 @@ package com.example.sns.repository;
 
 import com.example.sns.model.entity.AlarmEntity;
 import com.example.sns.model.entity.UserEntity;
-import org.springframework.data.domain.Page;
+import com.example.sns.model.projection.AlarmProjection;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
 
 public interface AlarmRepository extends JpaRepository<AlarmEntity, Integer> {
 
-    Page<AlarmEntity> findAllByUser(UserEntity user, Pageable pageable);
+    String ALARM_PROJECTION = "SELECT new com.example.sns.model.projection.AlarmProjection(" +
+            "a.id, a.alarmType, a.args, a.registeredAt, a.updatedAt, a.deletedAt) " +
+            "FROM AlarmEntity a";
+
+    //since 는 보관 기간 시작 시각(AlarmPartitionRepository.getRetentionStart), 알람 테이블이 파티션으로 나뉘어 있으면 최근 파티션만 읽음
+    long countByUserIdAndRegisteredAtGreaterThanEqual(Integer userId, Timestamp since);
+
+    @Query(ALARM_PROJECTION + " WHERE a.user = :user AND a.registeredAt >= :since")
+    Slice<AlarmProjection> findProjectionsByUser(@Param("user") UserEntity user, @Param("since") Timestamp since, Pageable pageable);
+
+    @Query(ALARM_PROJECTION + " WHERE a.user = :user AND a.registeredAt >= :since AND a.id < :cursor ORDER BY a.id DESC")
+    Slice<AlarmProjection> findProjectionsByUserBefore(@Param("user") UserEntity user, @Param("since") Timestamp since, @Param("cursor") Integer cursor, Pageable pageable);
 }
@@ -2,13 +2,26 @@ package com.example.sns.repository;
 
 import com.example.sns.model.entity.CommentEntity;
 import com.example.sns.model.entity.PostEntity;
-import org.springframework.data.domain.Page;
+import com.example.sns.model.projection.CommentProjection;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CommentEntityRepository extends JpaRepository<CommentEntity, Integer> {
 
-    Page<CommentEntity> findAllByPost(PostEntity post, Pageable pageable);
+    String COMMENT_PROJECTION = "SELECT new com.example.sns.model.projection.CommentProjection(" +
+            "c.id, c.comment, u.userName, c.post.id, c.registeredAt, c.updatedAt, c.deletedAt) " +
+            "FROM CommentEntity c JOIN c.user u";
+
+    long countByPostId(Integer postId);
+
+    @Query(COMMENT_PROJECTION + " WHERE c.post = :post")
+    Slice<CommentProjection> findProjectionsByPost(@Param("post") PostEntity post, Pageable pageable);
+
+    @Query(COMMENT_PROJECTION + " WHERE c.post = :post AND c.id < :cursor ORDER BY c.id DESC")
+    Slice<CommentProjection> findProjectionsByPostBefore(@Param("post") PostEntity post, @Param("cursor") Integer cursor, Pageable pageable);
 }
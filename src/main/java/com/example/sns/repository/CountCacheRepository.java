@@ -0,0 +1,89 @@
+package com.example.sns.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//페이지 응답의 전체 개수를 매 요청 COUNT(*) 대신 캐싱된 값으로 제공
+//쓰기 시점에 증감하고, reconcile-interval 이 지나면 db 기준으로 다시 계산함 (다른 서버의 쓰기도 이때 반영)
+@Repository
+public class CountCacheRepository {
+
+    private final Cache<String, AtomicLong> counts;
+    private final PostEntityRepository postEntityRepository;
+    private final CommentEntityRepository commentEntityRepository;
+    private final AlarmRepository alarmRepository;
+    private final AlarmPartitionRepository alarmPartitionRepository;
+
+    public CountCacheRepository(PostEntityRepository postEntityRepository,
+                                CommentEntityRepository commentEntityRepository,
+                                AlarmRepository alarmRepository,
+                                AlarmPartitionRepository alarmPartitionRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${sns.cache.count.max-size:100000}") long maxSize,
+                                @Value("${sns.cache.count.reconcile-interval:PT1M}") Duration reconcileInterval) {
+        this.postEntityRepository = postEntityRepository;
+        this.commentEntityRepository = commentEntityRepository;
+        this.alarmRepository = alarmRepository;
+        this.alarmPartitionRepository = alarmPartitionRepository;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(reconcileInterval)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "pageCount");
+    }
+
+    public long getPostCount() {
+        return get("post", postEntityRepository::count);
+    }
+
+    public long getUserPostCount(Integer userId) {
+        return get("post:user:" + userId, () -> postEntityRepository.countByUserId(userId));
+    }
+
+    public long getCommentCount(Integer postId) {
+        return get("comment:post:" + postId, () -> commentEntityRepository.countByPostId(postId));
+    }
+
+    public long getAlarmCount(Integer userId) {
+        return get("alarm:user:" + userId, () -> alarmRepository.countByUserIdAndRegisteredAtGreaterThanEqual(userId, alarmPartitionRepository.getRetentionStart()));
+    }
+
+    public void increasePostCount(Integer userId) {
+        add("post", 1);
+        add("post:user:" + userId, 1);
+    }
+
+    public void decreasePostCount(Integer userId) {
+        add("post", -1);
+        add("post:user:" + userId, -1);
+    }
+
+    public void increaseCommentCount(Integer postId) {
+        add("comment:post:" + postId, 1);
+    }
+
+    public void increaseAlarmCount(Integer userId) {
+        add("alarm:user:" + userId, 1);
+    }
+
+    private long get(String key, LongSupplier loader) {
+        return counts.get(key, it -> new AtomicLong(loader.getAsLong())).get();
+    }
+
+    //캐시에 없는 범위는 다음 조회 때 db에서 계산하므로 증감하지 않음
+    private void add(String key, long delta) {
+        AtomicLong count = counts.getIfPresent(key);
+        if (count != null) {
+            count.updateAndGet(it -> Math.max(0, it + delta));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.sns.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.function.Consumer;
+
+//여러 서버 중 한 곳에서만 실행해야 하는 주기 작업을 위한 db 이름 락 (MariaDB GET_LOCK)
+//락은 연결 단위이므로 작업이 끝날 때까지 연결 하나를 잡고 있음
+@Repository
+@RequiredArgsConstructor
+public class DatabaseLockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //락을 얻으면 락을 잡은 연결의 JdbcTemplate 으로 task 를 실행하고 true, 다른 서버가 실행 중이면 바로 false
+    public boolean executeWithLock(String name, Consumer<JdbcTemplate> task) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            JdbcTemplate template = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Integer.valueOf(1).equals(template.queryForObject("SELECT GET_LOCK(?, 0)", Integer.class, name))) {
+                return false;
+            }
+            try {
+                task.accept(template);
+            } finally {
+                template.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, name);
+            }
+            return true;
+        }));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.sns.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+//사용자별 알람 구독(SSE) 연결, 연결된 서버의 로컬 메모리에 보관
+//사용자별 목록은 변경 시 새 목록으로 교체하므로 알람 전송 중에 연결이 추가/삭제되어도 락이 필요 없음
+@Repository
+public class EmitterRepository {
+
+    private final Map<Integer, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final int maxPerUser;
+
+    public EmitterRepository(MeterRegistry meterRegistry,
+                             @Value("${sns.alarm.sse.max-connections-per-user:3}") int maxPerUser) {
+        this.maxPerUser = maxPerUser;
+        Gauge.builder("sns.alarm.sse.connections", emitters, it -> it.values().stream().mapToInt(List::size).sum())
+                .register(meterRegistry);
+    }
+
+    //사용자당 최대 연결 수를 넘으면 오래된 연결부터 목록에서 빼서 반환 (호출하는 쪽에서 종료)
+    public List<SseEmitter> add(Integer userId, SseEmitter emitter) {
+        List<SseEmitter> evicted = new ArrayList<>();
+        emitters.compute(userId, (key, current) -> {
+            List<SseEmitter> updated = current == null ? new ArrayList<>() : new ArrayList<>(current);
+            updated.add(emitter);
+            while (updated.size() > maxPerUser) {
+                evicted.add(updated.remove(0));
+            }
+            return List.copyOf(updated);
+        });
+        return evicted;
+    }
+
+    public void remove(Integer userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (key, current) -> {
+            List<SseEmitter> updated = current.stream().filter(it -> it != emitter).collect(Collectors.toList());
+            return updated.isEmpty() ? null : List.copyOf(updated);
+        });
+    }
+
+    public List<SseEmitter> get(Integer userId) {
+        return emitters.getOrDefault(userId, List.of());
+    }
+
+    public Map<Integer, List<SseEmitter>> getAll() {
+        return emitters;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.sns.repository;
+
+import com.example.sns.model.entity.FollowEntity;
+import com.example.sns.model.entity.UserEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface FollowEntityRepository extends JpaRepository<FollowEntity, Integer> {
+
+    Optional<FollowEntity> findByFollowerAndFollowing(UserEntity follower, UserEntity following);
+
+    @Query("SELECT f.follower.id FROM FollowEntity f WHERE f.following.id = :userId")
+    List<Integer> findFollowerIds(@Param("userId") Integer userId);
+
+    //팔로워가 많아 글 작성 시 타임라인에 넣지 않는 사용자 중 userId 가 팔로우 하는 사용자
+    @Query("SELECT u.id FROM FollowEntity f JOIN f.following u WHERE f.follower.id = :userId AND u.followerCount >= :minFollowerCount")
+    List<Integer> findFollowingIdsByMinFollowerCount(@Param("userId") Integer userId, @Param("minFollowerCount") int minFollowerCount);
+}
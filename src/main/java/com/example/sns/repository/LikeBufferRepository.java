@@ -0,0 +1,204 @@
+package com.example.sns.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+//db에 저장되기 전의 좋아요, 게시글별 좋아요 한 사용자 set, 저장 대기열(list), 처리 중(zset), 커밋 중(zset), 게시글별 대기 중인 좋아요 수(hash)로 구성
+//대기열에서 꺼낸 항목은 db에 커밋되어 확인(ack)될 때까지 처리 중 zset 에 남으므로, 서버가 중간에 종료되어도 recover 로 대기열에 되돌림
+//대기 수는 대기열과 처리 중인 항목 수이고, 커밋 직전에 줄여서 db 수와 두 번 더해지지 않게 함 (repair 로 항상 다시 계산할 수 있음)
+//redis 오류는 호출하는 쪽에서 처리함 (동기 저장으로 대신함)
+@Repository
+public class LikeBufferRepository {
+
+    private static final String LIKERS_PREFIX = "LIKERS:";
+    private static final String QUEUE_KEY = "LIKE_QUEUE";
+    private static final String PROCESSING_KEY = "LIKE_PROCESSING";
+    private static final String COMMITTING_KEY = "LIKE_COMMITTING";
+    private static final String PENDING_KEY = "LIKE_PENDING";
+
+    //항목("userId:postId")의 게시글 id와 사용자 id
+    private static final String PARSE_ITEM =
+            "local function parse(item) local i = string.find(item, ':', 1, true) " +
+            "return string.sub(item, i + 1), string.sub(item, 1, i - 1) end ";
+
+    private static final String DECREASE_PENDING =
+            "local function decrease(postId) " +
+            "if redis.call('HINCRBY', KEYS[3], postId, -1) <= 0 then redis.call('HDEL', KEYS[3], postId) end end ";
+
+    //중복 확인, 대기열 추가, 대기 수 증가를 원자적으로 처리, 이미 좋아요 한 사용자면 0
+    private static final RedisScript<Long> ADD_SCRIPT = RedisScript.of(
+            "if redis.call('SADD', KEYS[1], ARGV[1]) == 0 then return 0 end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "redis.call('RPUSH', KEYS[2], ARGV[1] .. ':' .. ARGV[3]) " +
+            "redis.call('HINCRBY', KEYS[3], ARGV[3], 1) " +
+            "return 1", Long.class);
+
+    //대기열 앞에서 최대 count 개를 꺼내 처리 중으로 옮김, 여러 서버가 동시에 꺼내도 같은 항목을 받지 않음
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> POP_SCRIPT = RedisScript.of(
+            "local items = redis.call('LRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1) " +
+            "if #items > 0 then redis.call('LTRIM', KEYS[1], #items, -1) end " +
+            "for _, item in ipairs(items) do redis.call('ZADD', KEYS[2], ARGV[2], item) end " +
+            "return items", List.class);
+
+    //커밋 직전 : 처리 중에서 커밋 중으로 옮기고 대기 수를 줄임
+    private static final RedisScript<Long> PREPARE_SCRIPT = RedisScript.of(
+            PARSE_ITEM + DECREASE_PENDING +
+            "for i = 2, #ARGV do " +
+            "if redis.call('ZREM', KEYS[1], ARGV[i]) == 1 then " +
+            "redis.call('ZADD', KEYS[2], ARGV[1], ARGV[i]) decrease((parse(ARGV[i]))) end end " +
+            "return #ARGV - 1", Long.class);
+
+    //커밋 이후 : 커밋 중에서 지우고, 중복 확인은 db로 하므로 좋아요 한 사용자 set 에서도 지움
+    private static final RedisScript<Long> ACKNOWLEDGE_SCRIPT = RedisScript.of(
+            PARSE_ITEM +
+            "for i = 2, #ARGV do " +
+            "redis.call('ZREM', KEYS[1], ARGV[i]) " +
+            "local postId, userId = parse(ARGV[i]) redis.call('SREM', ARGV[1] .. postId, userId) end " +
+            "return #ARGV - 1", Long.class);
+
+    //커밋 실패 : 커밋 중에서 처리 중으로 되돌리고 대기 수를 다시 늘림
+    private static final RedisScript<Long> ROLLBACK_SCRIPT = RedisScript.of(
+            PARSE_ITEM +
+            "for i = 2, #ARGV do " +
+            "if redis.call('ZREM', KEYS[2], ARGV[i]) == 1 then " +
+            "redis.call('ZADD', KEYS[1], ARGV[1], ARGV[i]) redis.call('HINCRBY', KEYS[3], (parse(ARGV[i])), 1) end end " +
+            "return #ARGV - 1", Long.class);
+
+    //저장할 수 없는 항목을 버림 : 처리 중에서 지우고 대기 수를 줄이며, 다시 좋아요 할 수 있게 사용자 set 에서 지움
+    private static final RedisScript<Long> DROP_SCRIPT = RedisScript.of(
+            PARSE_ITEM + DECREASE_PENDING +
+            "for i = 2, #ARGV do " +
+            "if redis.call('ZREM', KEYS[1], ARGV[i]) == 1 then " +
+            "local postId, userId = parse(ARGV[i]) decrease(postId) redis.call('SREM', ARGV[1] .. postId, userId) end end " +
+            "return #ARGV - 1", Long.class);
+
+    //잠시 저장할 수 없는 항목을 처리 중에서 대기열로 되돌림, 대기 수는 그대로
+    private static final RedisScript<Long> PUSH_BACK_SCRIPT = RedisScript.of(
+            "for i = 1, #ARGV do " +
+            "if redis.call('ZREM', KEYS[1], ARGV[i]) == 1 then redis.call('RPUSH', KEYS[2], ARGV[i]) end end " +
+            "return #ARGV", Long.class);
+
+    //ARGV[1] 이전에 꺼낸 뒤 확인되지 않은 항목(서버 종료 등)을 대기열로 되돌림
+    //커밋 중이던 항목은 커밋 여부를 알 수 없으므로 다시 저장하고, 이미 저장된 경우 중복으로 버려짐
+    private static final RedisScript<Long> RECOVER_SCRIPT = RedisScript.of(
+            PARSE_ITEM +
+            "local processing = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1]) " +
+            "for _, item in ipairs(processing) do redis.call('ZREM', KEYS[1], item) redis.call('RPUSH', KEYS[3], item) end " +
+            "local committing = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1]) " +
+            "for _, item in ipairs(committing) do redis.call('ZREM', KEYS[2], item) redis.call('RPUSH', KEYS[3], item) " +
+            "redis.call('HINCRBY', KEYS[4], (parse(item)), 1) end " +
+            "return #processing + #committing", Long.class);
+
+    //대기 수를 대기열과 처리 중인 항목으로 다시 계산
+    private static final RedisScript<Long> REPAIR_SCRIPT = RedisScript.of(
+            PARSE_ITEM +
+            "local counts = {} " +
+            "local function count(item) local postId = parse(item) counts[postId] = (counts[postId] or 0) + 1 end " +
+            "for _, item in ipairs(redis.call('LRANGE', KEYS[1], 0, -1)) do count(item) end " +
+            "for _, item in ipairs(redis.call('ZRANGE', KEYS[2], 0, -1)) do count(item) end " +
+            "redis.call('DEL', KEYS[3]) " +
+            "local size = 0 " +
+            "for postId, value in pairs(counts) do redis.call('HSET', KEYS[3], postId, value) size = size + 1 end " +
+            "return size", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration likerTtl;
+
+    public LikeBufferRepository(StringRedisTemplate redisTemplate,
+                                @Value("${sns.like.write-behind.liker-ttl:PT24H}") Duration likerTtl) {
+        this.redisTemplate = redisTemplate;
+        this.likerTtl = likerTtl;
+    }
+
+    public boolean add(Integer postId, Integer userId) {
+        Long added = redisTemplate.execute(ADD_SCRIPT, List.of(LIKERS_PREFIX + postId, QUEUE_KEY, PENDING_KEY),
+                String.valueOf(userId), String.valueOf(likerTtl.getSeconds()), String.valueOf(postId));
+        return Long.valueOf(1).equals(added);
+    }
+
+    //"userId:postId" 형식, 꺼낸 항목은 acknowledge/drop/pushBack 할 때까지 처리 중으로 남음
+    @SuppressWarnings("unchecked")
+    public List<String> pop(int count) {
+        List<String> items = redisTemplate.execute(POP_SCRIPT, List.of(QUEUE_KEY, PROCESSING_KEY),
+                String.valueOf(count), now());
+        return items == null ? List.of() : items;
+    }
+
+    public void prepare(List<String> items) {
+        redisTemplate.execute(PREPARE_SCRIPT, List.of(PROCESSING_KEY, COMMITTING_KEY, PENDING_KEY), args(now(), items));
+    }
+
+    public void acknowledge(List<String> items) {
+        redisTemplate.execute(ACKNOWLEDGE_SCRIPT, List.of(COMMITTING_KEY), args(LIKERS_PREFIX, items));
+    }
+
+    public void rollback(List<String> items) {
+        redisTemplate.execute(ROLLBACK_SCRIPT, List.of(PROCESSING_KEY, COMMITTING_KEY, PENDING_KEY), args(now(), items));
+    }
+
+    public void drop(List<String> items) {
+        redisTemplate.execute(DROP_SCRIPT, List.of(PROCESSING_KEY, COMMITTING_KEY, PENDING_KEY), args(LIKERS_PREFIX, items));
+    }
+
+    //저장에 실패한 항목을 다시 대기열에 넣음
+    public void pushBack(List<String> items) {
+        if (!items.isEmpty()) {
+            redisTemplate.execute(PUSH_BACK_SCRIPT, List.of(PROCESSING_KEY, QUEUE_KEY), items.toArray());
+        }
+    }
+
+    //되돌린 항목 수
+    public long recover(Instant poppedBefore) {
+        Long recovered = redisTemplate.execute(RECOVER_SCRIPT, List.of(PROCESSING_KEY, COMMITTING_KEY, QUEUE_KEY, PENDING_KEY),
+                String.valueOf(poppedBefore.toEpochMilli()));
+        return recovered == null ? 0 : recovered;
+    }
+
+    public void repair() {
+        redisTemplate.execute(REPAIR_SCRIPT, List.of(QUEUE_KEY, PROCESSING_KEY, PENDING_KEY));
+    }
+
+    public long getPending(Integer postId) {
+        Object pending = redisTemplate.opsForHash().get(PENDING_KEY, String.valueOf(postId));
+        return Optional.ofNullable(pending).map(it -> Long.parseLong(it.toString())).orElse(0L);
+    }
+
+    public Map<Integer, Long> getPending(Collection<Integer> postIds) {
+        List<Object> keys = postIds.stream().map(String::valueOf).collect(Collectors.toList());
+        List<Object> values = redisTemplate.opsForHash().multiGet(PENDING_KEY, keys);
+        Map<Integer, Long> pending = new HashMap<>();
+        int i = 0;
+        for (Integer postId : postIds) {
+            Object value = values.get(i++);
+            if (value != null) {
+                pending.put(postId, Long.parseLong(value.toString()));
+            }
+        }
+        return pending;
+    }
+
+    private static String now() {
+        return String.valueOf(Instant.now().toEpochMilli());
+    }
+
+    private static Object[] args(String first, List<String> items) {
+        Object[] args = new Object[items.size() + 1];
+        args[0] = first;
+        for (int i = 0; i < items.size(); i++) {
+            args[i + 1] = items.get(i);
+        }
+        return args;
+    }
+}
@@ -5,7 +5,9 @@ import com.example.sns.model.entity.PostEntity;
 import com.example.sns.model.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface LikeEntityRepository extends JpaRepository<LikeEntity, Integer> {
@@ -15,4 +17,8 @@ public interface LikeEntityRepository extends JpaRepository<LikeEntity, Integer>
     @Query(value = "SELECT COUNT(*) FROM LikeEntity entity WHERE entity.post =:post")
     Integer countByPost(PostEntity post);
 
+    //사용자가 좋아요 한 게시글 id 전체 (좋아요 여부 비트맵 생성용)
+    @Query("SELECT l.post.id FROM LikeEntity l WHERE l.user.id = :userId")
+    List<Integer> findPostIdsByUserId(@Param("userId") Integer userId);
+
 }
@@ -0,0 +1,106 @@
+package com.example.sns.repository;
+
+import com.example.sns.util.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+//사용자별로 좋아요 한 게시글 id를 압축 비트맵(roaring bitmap)으로 메모리에 보관, 목록의 좋아요 여부를 db 조회 없이 확인함
+//처음 조회할 때 like 테이블에서 만들고, 좋아요 시(쓰기 지연 모드면 db에 저장될 때도) 커밋 이후에 추가하며 다른 서버에는 redis pub/sub 으로 알림
+//비트맵은 변경 시 복사본을 만들어 교체하므로 읽을 때 락이 필요 없음
+@Slf4j
+@Repository
+public class LikedPostRepository {
+
+    private static final String CHANNEL = "LIKED_POST";
+
+    private final Cache<Integer, RoaringBitmap> bitmaps;
+    private final LikeEntityRepository likeEntityRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final DistributionSummary bitmapSize;
+
+    public LikedPostRepository(LikeEntityRepository likeEntityRepository,
+                               StringRedisTemplate redisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               MeterRegistry meterRegistry,
+                               @Value("${sns.cache.liked-post.max-size:10000}") long maxSize,
+                               @Value("${sns.cache.liked-post.ttl:PT30M}") Duration ttl) {
+        this.likeEntityRepository = likeEntityRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.bitmaps = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                //pub/sub 알림을 놓친 비트맵도 ttl 이 지나면 db에서 다시 만들도록 조회가 아닌 갱신 시점 기준으로 만료
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, bitmaps, "likedPost");
+        //사용자(비트맵)별 메모리 사용량 분포
+        this.bitmapSize = DistributionSummary.builder("sns.cache.liked-post.bitmap.size")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("sns.cache.liked-post.memory", bitmaps, it -> it.asMap().values().stream().mapToLong(RoaringBitmap::getLongSizeInBytes).sum())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        //다른 서버에서 발생한 좋아요를 로컬 비트맵에 반영 (없으면 다음 조회 때 db에서 만들어지므로 무시)
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] payload = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+            addLocal(Integer.valueOf(payload[0]), Integer.valueOf(payload[1]));
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    public boolean isLiked(Integer userId, Integer postId) {
+        return bitmaps.get(userId, this::load).contains(postId);
+    }
+
+    public void add(Integer userId, Integer postId) {
+        TransactionUtils.afterCommit(() -> {
+            addLocal(userId, postId);
+            try {
+                redisTemplate.convertAndSend(CHANNEL, userId + ":" + postId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to publish liked post. {}", e.toString());
+            }
+        });
+    }
+
+    private void addLocal(Integer userId, Integer postId) {
+        bitmaps.asMap().computeIfPresent(userId, (key, bitmap) -> {
+            if (bitmap.contains(postId)) {
+                return bitmap;
+            }
+            RoaringBitmap copy = bitmap.clone();
+            copy.add(postId);
+            return copy;
+        });
+    }
+
+    private RoaringBitmap load(Integer userId) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        likeEntityRepository.findPostIdsByUserId(userId).forEach(bitmap::add);
+        bitmap.runOptimize();
+        bitmapSize.record(bitmap.getLongSizeInBytes());
+        return bitmap;
+    }
+}
@@ -2,13 +2,108 @@ package com.example.sns.repository;
 
 import com.example.sns.model.entity.PostEntity;
 import com.example.sns.model.entity.UserEntity;
-import org.springframework.data.domain.Page;
+import com.example.sns.model.projection.PostCountProjection;
+import com.example.sns.model.projection.PostDocument;
+import com.example.sns.model.projection.PostProjection;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostEntityRepository extends JpaRepository<PostEntity, Integer> {
 
-    Page<PostEntity> findAllByUser(UserEntity entity, Pageable pageable);
+    //목록 응답에 필요한 컬럼만 DTO로 조회, 영속성 컨텍스트에 올라가지 않아 변경 감지 대상이 아님
+    //본문 대신 요약(excerpt)을 조회하며, 요약이 저장되기 전에 작성된 글은 본문 앞부분을 db에서 잘라 사용함
+    String POST_PROJECTION = "SELECT new com.example.sns.model.projection.PostProjection(" +
+            "p.id, p.title, COALESCE(p.excerpt, SUBSTRING(p.body, 1, " + PostEntity.EXCERPT_LENGTH + ")), " +
+            "u.id, u.userName, COALESCE(p.likeCount, 0), COALESCE(p.commentCount, 0), p.registeredAt, p.updatedAt, p.deletedAt) " +
+            "FROM PostEntity p JOIN p.user u";
+
+    long countByUserId(Integer userId);
+
+    //Slice 로 조회하면 COUNT 쿼리 없이 size + 1 건으로 다음 페이지 여부만 확인함
+    @Query(POST_PROJECTION)
+    Slice<PostProjection> findProjections(Pageable pageable);
+
+    @Query(POST_PROJECTION + " WHERE p.user = :user")
+    Slice<PostProjection> findProjectionsByUser(@Param("user") UserEntity user, Pageable pageable);
+
+    //커서(id) 이전의 항목만 id 역순으로 조회, offset 없이 인덱스를 바로 탐색함
+    @Query(POST_PROJECTION + " WHERE p.id < :cursor ORDER BY p.id DESC")
+    Slice<PostProjection> findProjectionsBefore(@Param("cursor") Integer cursor, Pageable pageable);
+
+    @Query(POST_PROJECTION + " WHERE p.user = :user AND p.id < :cursor ORDER BY p.id DESC")
+    Slice<PostProjection> findProjectionsByUserBefore(@Param("user") UserEntity user, @Param("cursor") Integer cursor, Pageable pageable);
+
+    @Query(POST_PROJECTION + " WHERE p.id IN :ids")
+    List<PostProjection> findProjectionsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query(POST_PROJECTION + " WHERE u.id IN :userIds AND p.id < :cursor ORDER BY p.id DESC")
+    Slice<PostProjection> findProjectionsByUserIdsBefore(@Param("userIds") Collection<Integer> userIds, @Param("cursor") Integer cursor, Pageable pageable);
+
+    //redis 타임라인을 사용할 수 없을 때 본인과 팔로우 하는 사용자의 글을 db에서 직접 조회
+    @Query(POST_PROJECTION + " WHERE (u.id = :userId OR u.id IN (SELECT f.following.id FROM FollowEntity f WHERE f.follower.id = :userId))" +
+            " AND p.id < :cursor ORDER BY p.id DESC")
+    Slice<PostProjection> findTimelineProjectionsBefore(@Param("userId") Integer userId, @Param("cursor") Integer cursor, Pageable pageable);
+
+    @Query("SELECT p.id FROM PostEntity p WHERE p.user.id = :userId ORDER BY p.id DESC")
+    List<Integer> findRecentIdsByUserId(@Param("userId") Integer userId, Pageable pageable);
+
+    @Query("SELECT new com.example.sns.model.projection.PostCountProjection(p.id, COALESCE(p.likeCount, 0), COALESCE(p.commentCount, 0)) " +
+            "FROM PostEntity p WHERE p.id IN :ids")
+    List<PostCountProjection> findCountsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT COALESCE(p.likeCount, 0) FROM PostEntity p WHERE p.id = :id")
+    Optional<Integer> findLikeCountById(@Param("id") Integer id);
+
+    @Modifying
+    @Query("UPDATE PostEntity p SET p.likeCount = COALESCE(p.likeCount, 0) + :delta WHERE p.id = :postId")
+    int addLikeCount(@Param("postId") Integer postId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE PostEntity p SET p.commentCount = COALESCE(p.commentCount, 0) + :delta WHERE p.id = :postId")
+    int addCommentCount(@Param("postId") Integer postId, @Param("delta") int delta);
+
+    //id 구간 단위로 좋아요/댓글 수를 실제 행 수로 다시 계산, 구간마다 별도 트랜잭션으로 실행해 잠금을 짧게 유지함
+    @Transactional
+    @Modifying
+    @Query("UPDATE PostEntity p SET " +
+            "p.likeCount = (SELECT COUNT(l) FROM LikeEntity l WHERE l.post.id = p.id AND l.deletedAt IS NULL), " +
+            "p.commentCount = (SELECT COUNT(c) FROM CommentEntity c WHERE c.post.id = p.id AND c.deletedAt IS NULL) " +
+            "WHERE p.id >= :fromId AND p.id < :toId")
+    int reconcileCounts(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
+
+    @Query("SELECT MAX(p.id) FROM PostEntity p")
+    Optional<Integer> findMaxId();
+
+    String POST_DOCUMENT = "SELECT new com.example.sns.model.projection.PostDocument(p.id, p.title, p.body) FROM PostEntity p";
+
+    @Query(POST_DOCUMENT + " WHERE p.id = :id")
+    Optional<PostDocument> findDocumentById(@Param("id") Integer id);
+
+    //검색 색인 재생성용, 전체를 메모리에 올리지 않고 스트리밍으로 읽음
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(POST_DOCUMENT)
+    Stream<PostDocument> streamAllDocuments();
+
+    //검색 색인이 마지막으로 저장된 이후 작성/수정된 글
+    @Query(POST_DOCUMENT + " WHERE p.registeredAt >= :since OR p.updatedAt >= :since")
+    List<PostDocument> findDocumentsModifiedSince(@Param("since") Timestamp since);
+
+    //삭제된 글은 @Where 조건으로 조회되지 않으므로 직접 조회
+    @Query(value = "SELECT id FROM post WHERE deleted_at >= :since", nativeQuery = true)
+    List<Integer> findIdsDeletedSince(@Param("since") Timestamp since);
 }
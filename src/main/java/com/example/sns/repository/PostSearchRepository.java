@@ -0,0 +1,345 @@
+package com.example.sns.repository;
+
+import com.example.sns.model.projection.PostDocument;
+import com.example.sns.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.LockObtainFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+//게시글 제목/본문 전문 검색을 위한 lucene 역색인, 로컬 디스크에 저장되어 재시작 시 다시 만들지 않음
+//글 작성/수정/삭제가 커밋되면 바로 색인하고, 다른 서버에는 redis pub/sub 으로 게시글 id를 알려 db에서 읽어 색인하게 함
+//디스크 저장(commit) 시각을 commit user data 에 남겨, 재시작하면 그 이후 db에서 변경된 글만 다시 색인함
+@Slf4j
+@Repository
+public class PostSearchRepository {
+
+    private static final String CHANNEL = "POST_INDEX";
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String BODY = "body";
+    private static final String GENERATION = "generation";
+    private static final String CHECKPOINT = "checkpoint"; //이 시각 이전의 변경은 저장된 색인에 모두 반영됨 (epoch ms)
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final PostEntityRepository postEntityRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Analyzer analyzer = new CJKAnalyzer(); //한글/한자/일본어는 2-gram, 영문은 단어 단위로 색인
+    private final Directory directory;
+    private final IndexWriter indexWriter;
+    private final SearcherManager searcherManager;
+    private final Duration catchUpMargin;
+
+    //재생성 시 이번 세대보다 이전에 색인된 문서(db에서 사라진 글)를 지우기 위한 값
+    private volatile long generation = System.currentTimeMillis();
+
+    //재생성 중에 색인/삭제된 게시글, 재생성은 이전 시점의 db를 읽으므로 끝난 뒤 db에서 다시 읽어 반영함
+    private final Set<Integer> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding = false;
+
+    public PostSearchRepository(PostEntityRepository postEntityRepository,
+                                StringRedisTemplate redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${sns.search.index-path:./data/search-index}") String indexPath,
+                                @Value("${sns.search.catch-up-margin:PT1M}") Duration catchUpMargin) throws IOException {
+        this.postEntityRepository = postEntityRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.catchUpMargin = catchUpMargin;
+
+        //경로가 없으면 메모리 색인 (테스트)
+        Directory fsDirectory = indexPath.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Paths.get(indexPath));
+        IndexWriter writer;
+        try {
+            writer = new IndexWriter(fsDirectory, new IndexWriterConfig(analyzer));
+        } catch (LockObtainFailedException e) {
+            //같은 경로를 다른 프로세스가 사용 중이면 메모리 색인으로 대신하고 시작 시 db에서 만듦
+            log.warn("Search index {} is locked, using in-memory index. {}", indexPath, e.toString());
+            fsDirectory.close();
+            fsDirectory = new ByteBuffersDirectory();
+            writer = new IndexWriter(fsDirectory, new IndexWriterConfig(analyzer));
+        }
+        this.directory = fsDirectory;
+        this.indexWriter = writer;
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PostConstruct
+    void init() {
+        //다른 서버에서 변경된 게시글을 db에서 읽어 로컬 색인에 반영
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] payload = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+            if (!nodeId.equals(payload[0])) {
+                reindex(Integer.valueOf(payload[1]));
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    //저장된 색인이 없으면 db에서 만들고, 있으면 마지막 저장 이후 변경된 글만 반영
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            String checkpoint = getCheckpoint();
+            if (indexWriter.getDocStats().numDocs == 0 || checkpoint == null) {
+                rebuild();
+            } else {
+                catchUp(Instant.ofEpochMilli(Long.parseLong(checkpoint)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to build search index on startup. {}", e.toString());
+        }
+    }
+
+    //서버가 내려가기 전 저장하지 못한 변경과 내려가 있는 동안의 변경을 반영
+    //다른 서버의 변경은 pub/sub 으로 늦게 도착할 수 있고 서버마다 시각이 다를 수 있으므로 여유를 두고 조회
+    private void catchUp(Instant checkpoint) {
+        Instant checkpointAt = Instant.now();
+        Timestamp since = Timestamp.from(checkpoint.minus(catchUpMargin));
+        List<PostDocument> modified = postEntityRepository.findDocumentsModifiedSince(since);
+        List<Integer> deletedIds = postEntityRepository.findIdsDeletedSince(since);
+        modified.forEach(this::write);
+        deletedIds.forEach(this::remove);
+        commit(checkpointAt);
+        refresh();
+        log.info("Caught up search index with {} modified and {} deleted posts since {}", modified.size(), deletedIds.size(), since);
+    }
+
+    public void index(Integer postId, String title, String body) {
+        TransactionUtils.afterCommit(() -> {
+            trackRebuild(postId);
+            write(new PostDocument(postId, title, body));
+            publish(postId);
+        });
+    }
+
+    public void delete(Integer postId) {
+        TransactionUtils.afterCommit(() -> {
+            trackRebuild(postId);
+            remove(postId);
+            publish(postId);
+        });
+    }
+
+    //제목에 가중치를 두어 관련도 순으로 정렬, 결과는 게시글 id
+    public Page<Integer> search(String keyword, Pageable pageable) {
+        //lucene 은 offset + size 건을 int 로 조회하므로 넘는 페이지는 빈 결과
+        if (pageable.getOffset() > Integer.MAX_VALUE - pageable.getPageSize()) {
+            return Page.empty(pageable);
+        }
+        Query query;
+        try {
+            MultiFieldQueryParser parser = new MultiFieldQueryParser(new String[]{TITLE, BODY}, analyzer, Map.of(TITLE, 2f, BODY, 1f));
+            parser.setDefaultOperator(QueryParser.Operator.AND);
+            query = parser.parse(QueryParser.escape(keyword));
+        } catch (ParseException e) {
+            return Page.empty(pageable);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int offset = (int) pageable.getOffset();
+                TopDocs topDocs = searcher.search(query, offset + pageable.getPageSize());
+                List<Integer> postIds = new ArrayList<>();
+                for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+                    postIds.add(Integer.valueOf(searcher.doc(topDocs.scoreDocs[i].doc, Set.of(ID)).get(ID)));
+                }
+                //전체 건수는 많을 경우 하한값(근사값)
+                return new PageImpl<>(postIds, pageable, topDocs.totalHits.value);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //db 기준으로 색인을 다시 만듦, 만드는 동안에도 기존 색인으로 검색 가능
+    public synchronized int rebuild() {
+        Instant checkpointAt = Instant.now();
+        long rebuildGeneration = System.currentTimeMillis();
+        generation = rebuildGeneration;
+        AtomicInteger count = new AtomicInteger();
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<PostDocument> documents = postEntityRepository.streamAllDocuments()) {
+                    documents.forEach(it -> {
+                        write(it);
+                        count.incrementAndGet();
+                    });
+                }
+            });
+        } finally {
+            rebuilding = false;
+        }
+        //읽는 동안 삭제/수정된 글이 이전 내용으로 다시 색인되었으므로 db에서 다시 읽어 반영함 (이후 변경은 바로 색인됨)
+        List<Integer> changed = new ArrayList<>(changedDuringRebuild);
+        changedDuringRebuild.clear();
+        changed.forEach(this::reindex);
+        try {
+            indexWriter.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, rebuildGeneration - 1));
+            indexWriter.setLiveCommitData(Map.of(CHECKPOINT, String.valueOf(checkpointAt.toEpochMilli())).entrySet());
+            indexWriter.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Rebuilt search index with {} posts", count.get());
+        return count.get();
+    }
+
+    //색인 변경 내용을 검색에 반영 (near real-time)
+    @Scheduled(fixedDelayString = "${sns.search.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            log.warn("Failed to refresh search index. {}", e.toString());
+        }
+    }
+
+    //변경 내용을 디스크에 저장
+    @Scheduled(fixedDelayString = "${sns.search.commit-interval-ms:10000}")
+    public void commit() {
+        commit(Instant.now());
+    }
+
+    //checkpointAt 이전에 색인한 변경은 이번 commit 에 모두 포함됨
+    private void commit(Instant checkpointAt) {
+        try {
+            if (indexWriter.hasUncommittedChanges()) {
+                indexWriter.setLiveCommitData(Map.of(CHECKPOINT, String.valueOf(checkpointAt.toEpochMilli())).entrySet());
+                indexWriter.commit();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to commit search index. {}", e.toString());
+        }
+    }
+
+    //이전 버전에서 저장되어 checkpoint 가 없으면 null
+    private String getCheckpoint() {
+        Iterable<Map.Entry<String, String>> commitData = indexWriter.getLiveCommitData();
+        if (commitData == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : commitData) {
+            if (CHECKPOINT.equals(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        commit();
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    private void trackRebuild(Integer postId) {
+        if (rebuilding) {
+            changedDuringRebuild.add(postId);
+        }
+    }
+
+    private void reindex(Integer postId) {
+        trackRebuild(postId);
+        try {
+            postEntityRepository.findDocumentById(postId).ifPresentOrElse(this::write, () -> remove(postId));
+        } catch (RuntimeException e) {
+            log.warn("Failed to reindex post {}. {}", postId, e.toString());
+        }
+    }
+
+    private void write(PostDocument post) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(post.getId()), Field.Store.YES));
+        document.add(new TextField(TITLE, nullToEmpty(post.getTitle()), Field.Store.NO));
+        document.add(new TextField(BODY, nullToEmpty(post.getBody()), Field.Store.NO));
+        document.add(new LongPoint(GENERATION, generation));
+        try {
+            indexWriter.updateDocument(new Term(ID, String.valueOf(post.getId())), document);
+        } catch (IOException e) {
+            log.warn("Failed to index post {}. {}", post.getId(), e.toString());
+        }
+    }
+
+    private void remove(Integer postId) {
+        try {
+            indexWriter.deleteDocuments(new Term(ID, String.valueOf(postId)));
+        } catch (IOException e) {
+            log.warn("Failed to remove post {} from search index. {}", postId, e.toString());
+        }
+    }
+
+    private void publish(Integer postId) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + ":" + postId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish indexed post. {}", e.toString());
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.sns.repository;
+
+import com.example.sns.util.TransactionUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Supplier;
+
+//자주 조회되는 응답(피드, 댓글, 좋아요 수)을 JSON 으로 redis에 캐싱
+//각 항목은 태그(feed, post:{postId})에 묶여 있고, 쓰기 시 태그 단위로 무효화함
+//redis를 사용할 수 없으면 짧은 TTL의 로컬 캐시로 대신함
+@Slf4j
+@Repository
+public class ResponseCacheRepository {
+
+    private static final String KEY_PREFIX = "RESPONSE:";
+    private static final String TAG_PREFIX = "RESPONSE_TAG:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Object> localCache;
+    private final boolean redisEnabled;
+    private final Duration ttl;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public ResponseCacheRepository(StringRedisTemplate redisTemplate,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${sns.cache.response.ttl:PT1M}") Duration ttl,
+                                   @Value("${sns.cache.response.local-max-size:10000}") long localMaxSize,
+                                   @Value("${sns.cache.response.local-ttl:PT10S}") Duration localTtl,
+                                   @Value("${sns.cache.response.redis-enabled:false}") boolean redisEnabled) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisEnabled = redisEnabled;
+        this.ttl = ttl;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "response");
+        this.hitCounter = meterRegistry.counter("sns.cache.response.redis", "result", "hit");
+        this.missCounter = meterRegistry.counter("sns.cache.response.redis", "result", "miss");
+    }
+
+    //캐시에 있으면 그 값을, 없으면 loader 결과를 캐싱하고 반환
+    public <T> T get(String tag, String key, TypeReference<T> type, Supplier<T> loader) {
+        if (!redisEnabled) {
+            return getLocal(tag, key, loader);
+        }
+
+        String json;
+        try {
+            json = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+        } catch (RuntimeException e) {
+            log.warn("Failed to get response cache from redis, falling back to local cache. {}", e.toString());
+            return getLocal(tag, key, loader);
+        }
+
+        if (json != null) {
+            try {
+                T value = objectMapper.readValue(json, type);
+                hitCounter.increment();
+                return value;
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to read response cache. key: {}, {}", key, e.toString());
+            }
+        }
+        missCounter.increment();
+        T value = loader.get();
+        put(tag, key, value);
+        return value;
+    }
+
+    //태그에 묶인 항목을 모두 무효화, 트랜잭션 중이면 커밋된 이후에 무효화해 이전 값이 다시 캐싱되지 않도록 함
+    public void invalidate(String... tags) {
+        TransactionUtils.afterCommit(() -> evict(tags));
+    }
+
+    public static String feedTag() {
+        return "feed";
+    }
+
+    public static String postTag(Integer postId) {
+        return "post:" + postId;
+    }
+
+    private void put(String tag, String key, Object value) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, objectMapper.writeValueAsString(value), ttl);
+            redisTemplate.opsForSet().add(TAG_PREFIX + tag, KEY_PREFIX + key);
+            redisTemplate.expire(TAG_PREFIX + tag, ttl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to set response cache to redis. key: {}, {}", key, e.toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getLocal(String tag, String key, Supplier<T> loader) {
+        return (T) localCache.get(tag + "|" + key, it -> loader.get());
+    }
+
+    private void evict(String... tags) {
+        for (String tag : tags) {
+            localCache.asMap().keySet().removeIf(it -> it.startsWith(tag + "|"));
+            if (redisEnabled) {
+                try {
+                    Set<String> keys = redisTemplate.opsForSet().members(TAG_PREFIX + tag);
+                    if (keys != null && !keys.isEmpty()) {
+                        redisTemplate.delete(keys);
+                    }
+                    redisTemplate.delete(TAG_PREFIX + tag);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to invalidate response cache on redis. tag: {}, {}", tag, e.toString());
+                }
+            }
+        }
+    }
+}
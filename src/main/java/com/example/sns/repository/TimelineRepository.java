@@ -0,0 +1,107 @@
+package com.example.sns.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+//사용자별 홈 타임라인, redis sorted set 에 게시글 id를 score 로 저장 (id 역순 = 최신순)
+//사용자마다 최근 max-size 개만 유지함
+@Slf4j
+@Repository
+public class TimelineRepository {
+
+    private static final String KEY_PREFIX = "TIMELINE:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final int maxSize;
+    private final int batchSize;
+
+    public TimelineRepository(StringRedisTemplate redisTemplate,
+                              @Value("${sns.timeline.max-size:800}") int maxSize,
+                              @Value("${sns.timeline.fan-out-batch-size:1000}") int batchSize) {
+        this.redisTemplate = redisTemplate;
+        this.maxSize = maxSize;
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    //여러 사용자의 타임라인에 게시글 하나를 추가, batch-size 명씩 파이프라인으로 전송
+    public void push(List<Integer> userIds, Integer postId) {
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            List<Integer> batch = userIds.subList(from, Math.min(from + batchSize, userIds.size()));
+            try {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                    for (Integer userId : batch) {
+                        stringConnection.zAdd(getKey(userId), postId, String.valueOf(postId));
+                        stringConnection.zRemRange(getKey(userId), 0, -(maxSize + 1));
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Failed to push post {} to timelines. {}", postId, e.toString());
+            }
+        }
+    }
+
+    //한 사용자의 타임라인에 여러 게시글을 추가 (팔로우 시 기존 글 채우기)
+    public void pushAll(Integer userId, Collection<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (Integer postId : postIds) {
+                    stringConnection.zAdd(getKey(userId), postId, String.valueOf(postId));
+                }
+                stringConnection.zRemRange(getKey(userId), 0, -(maxSize + 1));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to push posts to timeline of {}. {}", userId, e.toString());
+        }
+    }
+
+    public void removeAll(Integer userId, Collection<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().remove(getKey(userId), postIds.stream().map(String::valueOf).toArray());
+        } catch (RuntimeException e) {
+            log.warn("Failed to remove posts from timeline of {}. {}", userId, e.toString());
+        }
+    }
+
+    //cursor 보다 작은 게시글 id를 최신순으로 최대 count 개 조회, redis를 사용할 수 없으면 empty
+    public Optional<List<Integer>> getBefore(Integer userId, Integer cursor, int count) {
+        try {
+            Set<String> postIds = redisTemplate.opsForZSet()
+                    .reverseRangeByScore(getKey(userId), Double.NEGATIVE_INFINITY, cursor - 1, 0, count);
+            if (postIds == null) {
+                return Optional.of(List.of());
+            }
+            return Optional.of(postIds.stream().map(Integer::valueOf).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to get timeline of {}. {}", userId, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    private String getKey(Integer userId) {
+        return KEY_PREFIX + userId;
+    }
+}
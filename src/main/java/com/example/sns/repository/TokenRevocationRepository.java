@@ -0,0 +1,94 @@
+package com.example.sns.repository;
+
+import com.example.sns.util.RebuildingBloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+
+//폐기(로그아웃)된 토큰의 jti 저장소
+//redis sorted set(score = 토큰 만료 시각)이 원본이고, 각 서버는 로컬 블룸 필터를 가짐
+//블룸 필터에 없으면 redis 조회 없이 통과, 있을 수도 있다고 할 때만 redis를 조회함
+@Slf4j
+@Repository
+public class TokenRevocationRepository {
+
+    private static final String KEY = "REVOKED_TOKENS";
+    private static final String CHANNEL = "REVOKED_TOKENS";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final RebuildingBloomFilter bloomFilter;
+
+    public TokenRevocationRepository(StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     @Value("${sns.jwt.revocation.expected-insertions:100000}") long expectedInsertions,
+                                     @Value("${sns.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.bloomFilter = new RebuildingBloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void init() {
+        //다른 서버에서 폐기한 토큰도 로컬 블룸 필터에 반영
+        listenerContainer.addMessageListener((message, pattern) ->
+                bloomFilter.put(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CHANNEL));
+        rebuild();
+    }
+
+    //redis에 먼저 저장해야 재생성 중에 폐기해도 새 필터에 반영됨
+    public void revoke(String tokenId, Instant expiration) {
+        try {
+            redisTemplate.opsForZSet().add(KEY, tokenId, expiration.toEpochMilli());
+        } catch (RuntimeException e) {
+            //이 서버에서만 폐기됨
+            log.warn("Failed to save revoked token to redis. {}", e.toString());
+        }
+        bloomFilter.put(tokenId);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, tokenId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish revoked token. {}", e.toString());
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+
+        try {
+            return redisTemplate.opsForZSet().score(KEY, tokenId) != null;
+        } catch (RuntimeException e) {
+            //폐기 여부를 확인할 수 없으면 안전하게 폐기된 것으로 간주
+            log.warn("Failed to check revoked token from redis. {}", e.toString());
+            return true;
+        }
+    }
+
+    //만료된 토큰은 redis에서 지우고, 남은 토큰으로 블룸 필터를 다시 만들어 오탐률이 계속 올라가지 않게 함
+    @Scheduled(fixedDelayString = "${sns.jwt.revocation.rebuild-interval-ms:3600000}", initialDelayString = "${sns.jwt.revocation.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        try {
+            bloomFilter.rebuild(rebuilt -> {
+                long now = Instant.now().toEpochMilli();
+                redisTemplate.opsForZSet().removeRangeByScore(KEY, Double.NEGATIVE_INFINITY, now);
+                Set<String> tokenIds = redisTemplate.opsForZSet().rangeByScore(KEY, now, Double.POSITIVE_INFINITY);
+                if (tokenIds != null) {
+                    tokenIds.forEach(rebuilt::put);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild revoked token filter. {}", e.toString());
+        }
+    }
+}
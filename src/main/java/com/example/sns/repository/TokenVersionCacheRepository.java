@@ -0,0 +1,43 @@
+package com.example.sns.repository;
+
+import com.example.sns.model.UserTokenVersion;
+import com.example.sns.util.JwtClaims;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+//stateless 토큰의 userId/role/version 이 현재 사용자 상태와 일치하는지 확인하기 위한 캐시
+//삭제된 사용자는 @Where 조건에 걸려 조회되지 않으므로 빈 값이 캐싱되어 토큰이 거부됨
+@Repository
+public class TokenVersionCacheRepository {
+
+    private final LoadingCache<Integer, Optional<UserTokenVersion>> cache;
+
+    public TokenVersionCacheRepository(UserEntityRepository userEntityRepository,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${sns.cache.token-version.max-size:10000}") long maxSize,
+                                       @Value("${sns.cache.token-version.ttl:PT1M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl) //다른 서버에서 변경된 버전은 최대 ttl 이후 반영됨
+                .recordStats()
+                .build(userEntityRepository::findTokenVersionById);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokenVersion");
+    }
+
+    public boolean isValid(JwtClaims claims) {
+        return cache.get(claims.getUserId())
+                .map(it -> it.getRole() == claims.getRole() && it.getTokenVersion().equals(claims.getTokenVersion()))
+                .orElse(false);
+    }
+
+    public void evict(Integer userId) {
+        cache.invalidate(userId);
+    }
+}
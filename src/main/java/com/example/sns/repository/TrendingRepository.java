@@ -0,0 +1,175 @@
+package com.example.sns.repository;
+
+import com.example.sns.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+//좋아요/댓글에 시간 감쇠를 적용한 인기 게시글 점수, redis sorted set 에 게시글 id 별로 저장
+//t 시점의 반응은 weight * e^((t - base) / tau) 만큼 더해, 점수를 다시 계산하지 않아도 최근 반응일수록 큰 값을 가짐
+//값이 계속 커지므로 주기적으로 base 를 현재 시각으로 옮기면서 전체 점수에 e^((base - now) / tau) 를 곱함 (rebase)
+//redis를 사용할 수 없으면 로컬 메모리에서 같은 방식으로 계산함
+@Slf4j
+@Repository
+public class TrendingRepository {
+
+    private static final String KEY = "TRENDING";
+    private static final String BASE_KEY = "TRENDING:BASE";
+    private static final double MIN_SCORE = 0.01; //rebase 시 이 값보다 작아진 게시글은 제거
+
+    //base 조회와 점수 증가를 원자적으로 처리해 rebase 중에도 다른 기준으로 더해지지 않게 함
+    private static final RedisScript<Long> INCREASE_SCRIPT = RedisScript.of(
+            "local base = tonumber(redis.call('GET', KEYS[2])) " +
+            "if not base then base = tonumber(ARGV[1]) redis.call('SET', KEYS[2], ARGV[1]) end " +
+            "redis.call('ZINCRBY', KEYS[1], tonumber(ARGV[2]) * math.exp((tonumber(ARGV[1]) - base) / tonumber(ARGV[3])), ARGV[4]) " +
+            "return 1", Long.class);
+
+    private static final RedisScript<Long> REBASE_SCRIPT = RedisScript.of(
+            "local base = tonumber(redis.call('GET', KEYS[2])) " +
+            "local now = tonumber(ARGV[1]) " +
+            "if base and now > base then " +
+            "redis.call('ZUNIONSTORE', KEYS[1], 1, KEYS[1], 'WEIGHTS', math.exp((base - now) / tonumber(ARGV[2]))) end " +
+            "redis.call('SET', KEYS[2], ARGV[1]) " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[4]) " +
+            "redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[3]) + 1)) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean redisEnabled;
+    private final double tau; //초 단위, 반감기 / ln2
+    private final double likeWeight;
+    private final double commentWeight;
+    private final int maxSize;
+
+    private final Map<Integer, Double> localScores = new ConcurrentHashMap<>();
+    private volatile long localBase = nowSeconds();
+
+    public TrendingRepository(StringRedisTemplate redisTemplate,
+                              @Value("${sns.trending.half-life:PT6H}") Duration halfLife,
+                              @Value("${sns.trending.like-weight:1}") double likeWeight,
+                              @Value("${sns.trending.comment-weight:2}") double commentWeight,
+                              @Value("${sns.trending.max-size:1000}") int maxSize,
+                              @Value("${sns.trending.redis-enabled:false}") boolean redisEnabled) {
+        this.redisTemplate = redisTemplate;
+        this.tau = halfLife.getSeconds() / Math.log(2);
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+        this.maxSize = maxSize;
+        this.redisEnabled = redisEnabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void increaseLikeScore(Integer postId) {
+        TransactionUtils.afterCommit(() -> increase(postId, likeWeight));
+    }
+
+    public void increaseCommentScore(Integer postId) {
+        TransactionUtils.afterCommit(() -> increase(postId, commentWeight));
+    }
+
+    public void remove(Integer postId) {
+        TransactionUtils.afterCommit(() -> {
+            localScores.remove(postId);
+            if (redisEnabled) {
+                try {
+                    redisTemplate.opsForZSet().remove(KEY, String.valueOf(postId));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to remove post {} from trending. {}", postId, e.toString());
+                }
+            }
+        });
+    }
+
+    //점수가 높은 순으로 최대 count 개의 게시글 id, redis 에서는 O(log N + count)
+    public List<Integer> getTop(int count) {
+        if (redisEnabled) {
+            try {
+                Set<String> postIds = redisTemplate.opsForZSet().reverseRange(KEY, 0, count - 1);
+                if (postIds == null) {
+                    return List.of();
+                }
+                return postIds.stream().map(Integer::valueOf).collect(Collectors.toList());
+            } catch (RuntimeException e) {
+                log.warn("Failed to get trending from redis, falling back to local scores. {}", e.toString());
+            }
+        }
+        return getLocalTop(count);
+    }
+
+    @Scheduled(fixedDelayString = "${sns.trending.rebase-interval-ms:3600000}")
+    public void rebase() {
+        long now = nowSeconds();
+        if (redisEnabled) {
+            try {
+                redisTemplate.execute(REBASE_SCRIPT, List.of(KEY, BASE_KEY),
+                        String.valueOf(now), String.valueOf(tau), String.valueOf(maxSize), String.valueOf(MIN_SCORE));
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebase trending scores. {}", e.toString());
+            }
+        }
+        rebaseLocal(now);
+    }
+
+    private void increase(Integer postId, double weight) {
+        long now = nowSeconds();
+        if (redisEnabled) {
+            try {
+                redisTemplate.execute(INCREASE_SCRIPT, List.of(KEY, BASE_KEY),
+                        String.valueOf(now), String.valueOf(weight), String.valueOf(tau), String.valueOf(postId));
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to increase trending score of {}, falling back to local scores. {}", postId, e.toString());
+            }
+        }
+        increaseLocal(postId, weight, now);
+    }
+
+    //rebase 와 동시에 실행되면 이전 base 기준 값이 더해질 수 있으므로 같은 락을 사용함
+    private synchronized void increaseLocal(Integer postId, double weight, long now) {
+        localScores.merge(postId, weight * Math.exp((now - localBase) / tau), Double::sum);
+    }
+
+    //count 크기의 최소 힙으로 상위 항목만 골라냄
+    private List<Integer> getLocalTop(int count) {
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Integer, Double> entry : localScores.entrySet()) {
+            heap.offer(Map.entry(entry.getKey(), entry.getValue()));
+            if (heap.size() > count) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Integer, Double>> top = new ArrayList<>(heap);
+        top.sort(Map.Entry.<Integer, Double>comparingByValue().reversed());
+        return top.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    private synchronized void rebaseLocal(long now) {
+        double factor = Math.exp((localBase - now) / tau);
+        localBase = now;
+        localScores.replaceAll((postId, score) -> score * factor);
+        localScores.values().removeIf(it -> it < MIN_SCORE);
+        if (localScores.size() > maxSize) {
+            Set<Integer> top = Set.copyOf(getLocalTop(maxSize));
+            localScores.keySet().retainAll(top);
+        }
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.sns.repository;
+
+import com.example.sns.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+//JwtTokenFilter가 매 요청마다 db에서 사용자를 조회하지 않도록 인증된 사용자 정보를 캐싱
+//1차 : 프로세스 내 캐시(크기 제한 + TTL), 2차 : redis (선택)
+@Slf4j
+@Repository
+public class UserCacheRepository {
+
+    private static final String KEY_PREFIX = "USER:";
+
+    private final Cache<String, User> localCache;
+    private final RedisTemplate<String, User> userRedisTemplate;
+    private final boolean redisEnabled;
+    private final Duration ttl;
+
+    private final Counter redisHitCounter;
+    private final Counter redisMissCounter;
+
+    public UserCacheRepository(RedisTemplate<String, User> userRedisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${sns.cache.user.max-size:10000}") long maxSize,
+                               @Value("${sns.cache.user.ttl:PT10M}") Duration ttl,
+                               @Value("${sns.cache.user.redis-enabled:false}") boolean redisEnabled) {
+        this.userRedisTemplate = userRedisTemplate;
+        this.redisEnabled = redisEnabled;
+        this.ttl = ttl;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        //로컬 캐시의 hit/miss/eviction 지표는 cache.* 메트릭으로 노출됨
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "userPrincipal");
+        this.redisHitCounter = meterRegistry.counter("sns.cache.user.redis", "result", "hit");
+        this.redisMissCounter = meterRegistry.counter("sns.cache.user.redis", "result", "miss");
+    }
+
+    public void setUser(User user) {
+        localCache.put(user.getUsername(), user);
+        if (redisEnabled) {
+            try {
+                userRedisTemplate.opsForValue().set(getKey(user.getUsername()), user, ttl);
+            } catch (RuntimeException e) {
+                log.warn("Failed to set user cache to redis. {}", e.toString());
+            }
+        }
+    }
+
+    public Optional<User> getUser(String userName) {
+        User user = localCache.getIfPresent(userName);
+        if (user != null || !redisEnabled) {
+            return Optional.ofNullable(user);
+        }
+
+        try {
+            user = userRedisTemplate.opsForValue().get(getKey(userName));
+        } catch (RuntimeException e) {
+            log.warn("Failed to get user cache from redis. {}", e.toString());
+            return Optional.empty();
+        }
+
+        if (user == null) {
+            redisMissCounter.increment();
+            return Optional.empty();
+        }
+        redisHitCounter.increment();
+        localCache.put(userName, user); //redis에서 찾은 값은 로컬 캐시에도 채워둠
+        return Optional.of(user);
+    }
+
+    //사용자 정보가 바뀌거나 삭제된 경우 명시적으로 캐시에서 제거
+    public void evict(String userName) {
+        localCache.invalidate(userName);
+        if (redisEnabled) {
+            try {
+                userRedisTemplate.delete(getKey(userName));
+            } catch (RuntimeException e) {
+                log.warn("Failed to evict user cache from redis. {}", e.toString());
+            }
+        }
+    }
+
+    private String getKey(String userName) {
+        return KEY_PREFIX + userName;
+    }
+}
@@ -1,13 +1,35 @@
 package com.example.sns.repository;
 
+import com.example.sns.model.UserTokenVersion;
 import com.example.sns.model.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserEntityRepository extends JpaRepository<UserEntity, Integer> {
 
     Optional<UserEntity> findByUserName(String userName);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT entity.userName FROM UserEntity entity")
+    Stream<String> streamAllUserNames();
+
+    @Query("SELECT new com.example.sns.model.UserTokenVersion(entity.id, entity.role, COALESCE(entity.tokenVersion, 0)) " +
+            "FROM UserEntity entity WHERE entity.id = :userId")
+    Optional<UserTokenVersion> findTokenVersionById(Integer userId);
+
+    @Modifying
+    @Query("UPDATE UserEntity entity SET entity.tokenVersion = COALESCE(entity.tokenVersion, 0) + 1 WHERE entity.id = :userId")
+    int increaseTokenVersion(Integer userId);
+
+    @Modifying
+    @Query("UPDATE UserEntity entity SET entity.followerCount = COALESCE(entity.followerCount, 0) + :delta WHERE entity.id = :userId")
+    int addFollowerCount(Integer userId, int delta);
 }
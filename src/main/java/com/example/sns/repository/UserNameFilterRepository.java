@@ -0,0 +1,182 @@
+package com.example.sns.repository;
+
+import com.example.sns.util.RebuildingBloomFilter;
+import com.example.sns.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+//가입된 사용자 이름의 블룸 필터, 없는 이름에 대한 조회(가입 중복 체크, 로그인)를 db 없이 처리하기 위함
+//필터는 "없음"만 확정할 수 있으므로 "있을 수도 있음"이면 db를 조회하고, 최종 판단은 user_name 유니크 인덱스가 함
+//필터에 없는 이름이 실제로 있으면 사용자가 로그인할 수 없으므로, db와 같다고 확인된 동안에만 "없음"을 믿음
+//가입할 때마다 redis 버전을 1씩 올려 메시지와 함께 보내고, 주기적으로 redis 버전까지 모두 받았는지 확인함
+@Slf4j
+@Repository
+public class UserNameFilterRepository {
+
+    private static final String CHANNEL = "USER_NAMES";
+    private static final String VERSION_KEY = "USER_NAMES_VERSION";
+    private static final long UNKNOWN_VERSION = -1;
+
+    private final UserEntityRepository userEntityRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TransactionTemplate transactionTemplate;
+    private final RebuildingBloomFilter bloomFilter;
+
+    private volatile boolean synced = false; //필터가 db와 같다고 확인된 경우에만 true
+    private final Queue<String> unpublished = new ConcurrentLinkedQueue<>(); //redis 장애로 알리지 못한 이름
+
+    //appliedVersion 까지의 메시지는 모두 반영됨, 그 이후에 먼저 도착한 메시지의 버전은 receivedVersions 에 둠
+    private long appliedVersion = UNKNOWN_VERSION;
+    private final TreeSet<Long> receivedVersions = new TreeSet<>();
+    private long checkedVersion = 0; //직전 확인 때의 redis 버전
+
+    public UserNameFilterRepository(UserEntityRepository userEntityRepository,
+                                    StringRedisTemplate redisTemplate,
+                                    RedisMessageListenerContainer listenerContainer,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${sns.user.name-filter.expected-insertions:1000000}") long expectedInsertions,
+                                    @Value("${sns.user.name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userEntityRepository = userEntityRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.bloomFilter = new RebuildingBloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void init() {
+        //다른 서버에서 가입한 사용자 이름도 로컬 필터에 반영, 메시지는 "버전:이름"
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int index = body.indexOf(':');
+            bloomFilter.put(body.substring(index + 1));
+            received(Long.parseLong(body.substring(0, index)));
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    //동기화되지 않은 동안에는 모든 이름이 있을 수도 있다고 응답
+    public boolean mightExist(String userName) {
+        return !synced || bloomFilter.mightContain(userName);
+    }
+
+    //가입이 커밋된 뒤에 반영해야 재생성이 db를 읽는 중이어도 새 필터에 들어감
+    public void add(String userName) {
+        TransactionUtils.afterCommit(() -> {
+            bloomFilter.put(userName);
+            publish(userName);
+        });
+    }
+
+    private void publish(String userName) {
+        try {
+            Long version = redisTemplate.opsForValue().increment(VERSION_KEY);
+            redisTemplate.convertAndSend(CHANNEL, version + ":" + userName);
+        } catch (RuntimeException e) {
+            //버전을 올리지 못했으면 다음 확인 때 다시 알림, 보내지 못한 버전은 다른 서버가 확인할 때 필터를 다시 만들게 함
+            log.warn("Failed to publish joined user name. {}", e.toString());
+            unpublished.add(userName);
+        }
+    }
+
+    private synchronized void received(long version) {
+        if (appliedVersion == UNKNOWN_VERSION || version <= appliedVersion) {
+            return;
+        }
+        receivedVersions.add(version);
+        while (receivedVersions.remove(appliedVersion + 1)) {
+            appliedVersion++;
+        }
+    }
+
+    //직전 확인 때의 redis 버전까지 받지 못했으면 메시지가 유실된 것이므로 다시 만듦, redis를 확인할 수 없으면 db를 조회하게 함
+    @Scheduled(fixedDelayString = "${sns.user.name-filter.sync-check-interval-ms:10000}", initialDelayString = "${sns.user.name-filter.sync-check-interval-ms:10000}")
+    public void checkSync() {
+        for (int i = unpublished.size(); i > 0; i--) {
+            String userName = unpublished.poll();
+            if (userName != null) {
+                publish(userName);
+            }
+        }
+
+        long version;
+        try {
+            version = currentVersion();
+        } catch (RuntimeException e) {
+            synced = false;
+            log.warn("Failed to check user name filter version. {}", e.toString());
+            return;
+        }
+
+        boolean missed;
+        synchronized (this) {
+            missed = appliedVersion == UNKNOWN_VERSION || checkedVersion > appliedVersion;
+            checkedVersion = version;
+        }
+        if (!synced || missed) {
+            rebuild();
+        }
+    }
+
+    //pub/sub 메시지를 놓친 경우를 대비해 주기적으로 db 기준으로 다시 만듦
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${sns.user.name-filter.rebuild-interval-ms:21600000}", initialDelayString = "${sns.user.name-filter.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        try {
+            long[] version = {UNKNOWN_VERSION};
+            bloomFilter.rebuild(rebuilt -> {
+                //db를 읽기 전의 버전까지는 db에 커밋되어 있음
+                try {
+                    version[0] = currentVersion();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to read user name filter version. {}", e.toString());
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<String> userNames = userEntityRepository.streamAllUserNames()) {
+                        userNames.forEach(rebuilt::put);
+                    }
+                });
+            });
+            rebuilt(version[0]);
+            synced = true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild user name filter. {}", e.toString());
+        }
+    }
+
+    //버전을 모르면 다음 확인 때 다시 만듦
+    private synchronized void rebuilt(long version) {
+        if (version == UNKNOWN_VERSION) {
+            appliedVersion = UNKNOWN_VERSION;
+            receivedVersions.clear();
+            return;
+        }
+        appliedVersion = Math.max(appliedVersion, version);
+        receivedVersions.headSet(appliedVersion, true).clear();
+        while (receivedVersions.remove(appliedVersion + 1)) {
+            appliedVersion++;
+        }
+    }
+
+    private long currentVersion() {
+        String version = redisTemplate.opsForValue().get(VERSION_KEY);
+        return version == null ? 0 : Long.parseLong(version);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.sns.service;
+
+import com.example.sns.controller.response.AlarmResponse;
+import com.example.sns.model.projection.AlarmProjection;
+import com.example.sns.repository.EmitterRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+//알람 실시간 전송(SSE) : 저장된 알람을 받는 사용자의 연결로 바로 보내, 클라이언트가 알람 목록을 주기적으로 조회하지 않아도 됨
+//사용자가 다른 서버에 연결되어 있을 수 있으므로 redis pub/sub 으로 다른 서버에도 전달함
+//알람 목록 조회와 같은 형식(AlarmResponse)의 json 으로 한 번만 만들어 연결과 redis 로 그대로 보냄
+//전송, 발행, heartbeat 는 크기가 제한된 전용 스레드 풀에서 실행해 느린 연결이나 redis 가 알람 저장 스레드를 막지 않게 하고, 가득 차면 전송하지 않음 (알람은 이미 저장됨)
+@Slf4j
+@Service
+public class AlarmService {
+
+    private static final String CHANNEL = "ALARM";
+    private static final String CONNECT_EVENT = "connect";
+    private static final String ALARM_EVENT = "alarm";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final EmitterRepository emitterRepository;
+    private final UserService userService;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final ThreadPoolExecutor sendExecutor;
+    private final Counter rejectedCounter;
+
+    public AlarmService(EmitterRepository emitterRepository,
+                        UserService userService,
+                        StringRedisTemplate redisTemplate,
+                        RedisMessageListenerContainer listenerContainer,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${sns.alarm.sse.timeout:PT30M}") Duration timeout,
+                        @Value("${sns.alarm.sse.send-threads:2}") int sendThreads,
+                        @Value("${sns.alarm.sse.send-queue-capacity:10000}") int sendQueueCapacity) {
+        this.emitterRepository = emitterRepository;
+        this.userService = userService;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.sendExecutor = new ThreadPoolExecutor(
+                sendThreads, sendThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueueCapacity),
+                new CustomizableThreadFactory("alarm-send-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        Gauge.builder("sns.alarm.send.queue", sendExecutor, it -> it.getQueue().size()).register(meterRegistry);
+        this.rejectedCounter = meterRegistry.counter("sns.alarm.send.rejected");
+    }
+
+    @PostConstruct
+    void init() {
+        //다른 서버에서 저장된 알람을 이 서버에 연결된 사용자에게 전송, 메시지는 "서버 id:사용자 id:알람 json"
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] payload = new String(message.getBody(), StandardCharsets.UTF_8).split(":", 3);
+            if (!nodeId.equals(payload[0])) {
+                Integer userId = Integer.valueOf(payload[1]);
+                execute(userId, () -> sendLocal(userId, payload[2]));
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sendExecutor.shutdown();
+    }
+
+    //연결이 끊기거나 timeout 이 지나면 목록에서 제거됨, 클라이언트는 다시 연결함
+    public SseEmitter subscribe(String userName) {
+        Integer userId = userService.loadUserByUserName(userName).getId();
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        emitter.onCompletion(() -> emitterRepository.remove(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitterRepository.remove(userId, emitter));
+
+        emitterRepository.add(userId, emitter).forEach(SseEmitter::complete);
+        //연결 직후 이벤트를 보내 응답을 시작함 (보내지 않으면 첫 알람 전까지 응답 헤더가 전달되지 않음)
+        send(userId, emitter, SseEmitter.event().name(CONNECT_EVENT).data(userId));
+        return emitter;
+    }
+
+    //알람이 db에 저장된 이후 저장된 알람(합쳐진 경우 갱신된 알람)으로 호출, 전송 스레드 풀에서 전송하고 바로 반환함
+    public void send(Integer userId, AlarmProjection alarm) {
+        execute(userId, () -> {
+            String json = toJson(alarm);
+            sendLocal(userId, json);
+            publish(userId, json);
+        });
+    }
+
+    //프록시/로드밸런서가 유휴 연결을 끊지 않도록 주기적으로 빈 이벤트(comment)를 보내고, 끊어진 연결은 이때 정리됨
+    //느린 연결이 스케줄러 스레드를 막지 않도록 전송 스레드 풀에서 보냄
+    @Scheduled(fixedDelayString = "${sns.alarm.sse.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        emitterRepository.getAll().forEach((userId, emitters) ->
+                emitters.forEach(it -> execute(userId, () -> send(userId, it, SseEmitter.event().comment("heartbeat")))));
+    }
+
+    private void execute(Integer userId, Runnable task) {
+        try {
+            sendExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Alarm send queue is full, skipped sending to user {}", userId);
+        }
+    }
+
+    private String toJson(AlarmProjection alarm) {
+        try {
+            return objectMapper.writeValueAsString(AlarmResponse.fromProjection(alarm));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private void publish(Integer userId, String json) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, String.join(":", nodeId, String.valueOf(userId), json));
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish alarm to user {}. {}", userId, e.toString());
+        }
+    }
+
+    private void sendLocal(Integer userId, String json) {
+        emitterRepository.get(userId)
+                .forEach(it -> send(userId, it, SseEmitter.event().name(ALARM_EVENT).data(json, MediaType.APPLICATION_JSON)));
+    }
+
+    private void send(Integer userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            //이미 끊어졌거나 종료된 연결, 응답을 끝내고 목록에서 제거
+            emitter.completeWithError(e);
+            emitterRepository.remove(userId, emitter);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.sns.service;
+
+import com.example.sns.model.AlarmEvent;
+import com.example.sns.repository.AlarmJdbcRepository;
+import com.example.sns.repository.AlarmJdbcRepository.SavedAlarm;
+import com.example.sns.repository.CountCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+//알람 저장 : 좋아요/댓글 트랜잭션이 커밋된 이후 AlarmEvent 를 크기가 제한된 대기열에 넣고,
+//별도 스레드가 batch-size 만큼 모이거나 flush-interval 이 지나면 묶어서 JDBC batch insert 로 저장함
+//대기열이 가득 차면 요청 스레드에서 바로 저장하고, 종료 시에는 남은 알람을 모두 저장한 뒤 종료함
+//db에 연결할 수 없는 등 잠시 저장할 수 없으면 retry-backoff 부터 두 배씩 늘려 기다린 뒤 다시 저장하고, 저장할 수 없는 알람만 버림
+//저장된 알람은 구독 중인 사용자에게 바로 전송(AlarmService)
+@Slf4j
+@Service
+public class AlarmWriteService {
+
+    private final AlarmJdbcRepository alarmJdbcRepository;
+    private final CountCacheRepository countCacheRepository;
+    private final AlarmService alarmService;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<AlarmEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration shutdownTimeout;
+    private final long retryBackoffNanos;
+    private final long maxRetryBackoffNanos;
+
+    private final Timer writeTimer;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter overflowCounter;
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public AlarmWriteService(AlarmJdbcRepository alarmJdbcRepository,
+                             CountCacheRepository countCacheRepository,
+                             AlarmService alarmService,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${sns.alarm.write.queue-capacity:10000}") int queueCapacity,
+                             @Value("${sns.alarm.write.batch-size:200}") int batchSize,
+                             @Value("${sns.alarm.write.flush-interval:PT0.1S}") Duration flushInterval,
+                             @Value("${sns.alarm.write.shutdown-timeout:PT10S}") Duration shutdownTimeout,
+                             @Value("${sns.alarm.write.retry-backoff:PT0.1S}") Duration retryBackoff,
+                             @Value("${sns.alarm.write.max-retry-backoff:PT10S}") Duration maxRetryBackoff) {
+        this.alarmJdbcRepository = alarmJdbcRepository;
+        this.countCacheRepository = countCacheRepository;
+        this.alarmService = alarmService;
+        //요청 스레드에서 저장할 때는 이미 커밋된 트랜잭션의 afterCommit 단계이므로 새 트랜잭션을 시작함
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        //gap lock 없이 다른 서버가 커밋한 알람을 읽어 합침 (AlarmJdbcRepository)
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.maxRetryBackoffNanos = maxRetryBackoff.toNanos();
+
+        //대기열에 쌓여 있는(아직 저장되지 않은) 알람 수
+        Gauge.builder("sns.alarm.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        this.writeTimer = meterRegistry.timer("sns.alarm.write");
+        this.writtenCounter = meterRegistry.counter("sns.alarm.written");
+        this.droppedCounter = meterRegistry.counter("sns.alarm.dropped");
+        this.overflowCounter = meterRegistry.counter("sns.alarm.queue.overflow");
+    }
+
+    @PostConstruct
+    void start() {
+        worker = new Thread(this::run, "alarm-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    //트랜잭션이 롤백되면 호출되지 않음, 트랜잭션 밖에서 발행하면 바로 호출됨
+    //요청 스레드는 기다리지 않으므로 대기열이 가득 찬 상태에서 db에 연결할 수 없으면 버림
+    @TransactionalEventListener(fallbackExecution = true)
+    public void enqueue(AlarmEvent event) {
+        if (!running || !queue.offer(event)) {
+            overflowCounter.increment();
+            drop(write(List.of(event)));
+        }
+    }
+
+    //종료 전에 대기 중인 알람을 저장, shutdown-timeout 이 지나면 작업 스레드를 중단하고 남은 알람은 버림
+    @PreDestroy
+    void drain() throws InterruptedException {
+        running = false;
+        worker.join(shutdownTimeout.toMillis());
+        if (worker.isAlive()) {
+            log.warn("Alarm writer did not finish in {}, stopping it", shutdownTimeout);
+            worker.interrupt();
+            return;
+        }
+        //종료 직전에 대기열에 들어온 알람
+        List<AlarmEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            drop(write(remaining));
+        }
+    }
+
+    private void run() {
+        List<AlarmEvent> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                collect(batch);
+                if (!batch.isEmpty()) {
+                    writeWithRetry(batch);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            //종료 중에 중단됨
+            queue.drainTo(batch);
+            drop(batch);
+        }
+    }
+
+    //첫 알람이 들어온 뒤 flush-interval 동안 batch-size 까지 모음
+    private void collect(List<AlarmEvent> batch) throws InterruptedException {
+        AlarmEvent first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            AlarmEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    //잠시 저장할 수 없는 알람은 저장될 때까지 기다렸다가 다시 저장, 그 사이 들어온 알람은 대기열에 쌓임
+    //종료 중에 중단되면 남은 알람을 버리고 중단 상태를 유지함
+    private void writeWithRetry(List<AlarmEvent> alarms) {
+        List<AlarmEvent> remaining = write(alarms);
+        long backoff = retryBackoffNanos;
+        while (!remaining.isEmpty()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drop(remaining);
+                return;
+            }
+            backoff = Math.min(backoff * 2, maxRetryBackoffNanos);
+            remaining = write(remaining);
+        }
+    }
+
+    //db에 연결할 수 없거나 lock 대기 시간 초과, deadlock 등으로 잠시 저장할 수 없으면 저장하지 못한 알람을 반환
+    //그 외 이유로 묶음 저장에 실패하면 한 건씩 다시 저장하고, 그래도 실패한 알람(탈퇴한 사용자 등)은 버림
+    private List<AlarmEvent> write(List<AlarmEvent> alarms) {
+        List<SavedAlarm> saved;
+        try {
+            saved = writeTimer.record(() -> transactionTemplate.execute(status -> alarmJdbcRepository.saveAll(alarms)));
+        } catch (TransactionException | TransientDataAccessException | DataAccessResourceFailureException e) {
+            log.warn("Failed to save {} alarms, will retry. {}", alarms.size(), e.toString());
+            return alarms;
+        } catch (RuntimeException e) {
+            if (alarms.size() == 1) {
+                droppedCounter.increment();
+                log.warn("Dropped alarm {} to user {}. {}", alarms.get(0).getAlarmType(), alarms.get(0).getUserId(), e.toString());
+                return List.of();
+            }
+            log.warn("Failed to save {} alarms, retrying one by one. {}", alarms.size(), e.toString());
+            return alarms.stream()
+                    .flatMap(it -> write(List.of(it)).stream())
+                    .collect(Collectors.toList());
+        }
+        writtenCounter.increment(alarms.size());
+        //기존 알람에 합쳐진 경우 알람 수는 늘어나지 않음
+        saved.stream().filter(SavedAlarm::isInserted).forEach(it -> countCacheRepository.increaseAlarmCount(it.getUserId()));
+        //합쳐진 알람은 개수와 최근 사용자가 갱신된 알람으로 한 번만 전송
+        saved.forEach(it -> alarmService.send(it.getUserId(), it.getAlarm()));
+        return List.of();
+    }
+
+    private void drop(List<AlarmEvent> alarms) {
+        if (!alarms.isEmpty()) {
+            droppedCounter.increment(alarms.size());
+            log.warn("Dropped {} alarms that could not be saved", alarms.size());
+        }
+    }
+}
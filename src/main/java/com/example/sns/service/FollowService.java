@@ -0,0 +1,62 @@
+package com.example.sns.service;
+
+import com.example.sns.exception.ErrorCode;
+import com.example.sns.exception.SnsApplicationException;
+import com.example.sns.model.entity.FollowEntity;
+import com.example.sns.model.entity.UserEntity;
+import com.example.sns.repository.FollowEntityRepository;
+import com.example.sns.repository.UserEntityRepository;
+import com.example.sns.util.DataIntegrityUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class FollowService {
+
+    private final FollowEntityRepository followEntityRepository;
+    private final UserEntityRepository userEntityRepository;
+    private final TimelineService timelineService;
+
+    @Transactional
+    public void follow(String userName, String targetName) {
+        UserEntity follower = getUserOrException(userName);
+        UserEntity following = getUserOrException(targetName);
+
+        if (follower.getId().equals(following.getId())) {
+            throw new SnsApplicationException(ErrorCode.INVALID_FOLLOW, String.format("%s cannot follow oneself", userName));
+        }
+        //조회 없이 바로 insert 하고 (follower_id, following_id) unique 제약 위반이면 이미 팔로우 한 것으로 처리
+        try {
+            followEntityRepository.save(FollowEntity.of(follower, following));
+        } catch (DataIntegrityViolationException e) {
+            if (DataIntegrityUtils.isViolationOf(e, FollowEntity.UNIQUE_FOLLOWER_FOLLOWING)) {
+                throw new SnsApplicationException(ErrorCode.ALREADY_FOLLOWED,
+                        String.format("%s already follows %s", userName, targetName));
+            }
+            throw e;
+        }
+        userEntityRepository.addFollowerCount(following.getId(), 1);
+        timelineService.backfill(follower, following);
+    }
+
+    @Transactional
+    public void unfollow(String userName, String targetName) {
+        UserEntity follower = getUserOrException(userName);
+        UserEntity following = getUserOrException(targetName);
+
+        FollowEntity followEntity = followEntityRepository.findByFollowerAndFollowing(follower, following).orElseThrow(() ->
+                new SnsApplicationException(ErrorCode.FOLLOW_NOT_FOUND, String.format("%s does not follow %s", userName, targetName)));
+
+        followEntityRepository.delete(followEntity);
+        userEntityRepository.addFollowerCount(following.getId(), -1);
+        timelineService.removeAuthor(follower, following);
+    }
+
+    private UserEntity getUserOrException(String userName) {
+        return userEntityRepository.findByUserName(userName).orElseThrow(() ->
+                new SnsApplicationException(ErrorCode.USER_NOT_FOUND, String.format("%s not founded", userName)));
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.sns.service;
+
+import com.example.sns.exception.ErrorCode;
+import com.example.sns.exception.SnsApplicationException;
+import com.example.sns.model.AlarmArgs;
+import com.example.sns.model.AlarmEvent;
+import com.example.sns.model.AlarmType;
+import com.example.sns.model.entity.LikeEntity;
+import com.example.sns.model.entity.PostEntity;
+import com.example.sns.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//좋아요 쓰기 지연(write-behind) : 요청 시에는 redis 대기열에만 넣고 바로 응답하고,
+//주기적으로 대기열에서 묶음으로 꺼내 좋아요 저장과 게시글별 좋아요 수 증가를 한 트랜잭션으로 처리함 (알람은 커밋 이후 AlarmWriteService 가 저장)
+//인기 글에 좋아요가 몰려도 게시글 행 갱신은 묶음마다 한 번만 일어남
+//꺼낸 묶음은 커밋 이후 확인(ack)할 때까지 redis 처리 중 목록에 남고, 서버가 비정상 종료되면 recover 가 대기열로 되돌림
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LikeWriteBehindService {
+
+    private final LikeBufferRepository likeBufferRepository;
+    private final LikeEntityRepository likeEntityRepository;
+    private final PostEntityRepository postEntityRepository;
+    private final UserEntityRepository userEntityRepository;
+    private final ResponseCacheRepository responseCacheRepository;
+    private final LikedPostRepository likedPostRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${sns.like.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${sns.like.write-behind.batch-size:500}")
+    private int batchSize;
+
+    //꺼낸 뒤 이 시간이 지나도 확인되지 않은 항목은 처리하던 서버가 종료된 것으로 보고 대기열로 되돌림
+    @Value("${sns.like.write-behind.processing-timeout:PT1M}")
+    private Duration processingTimeout;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //대기열에 넣었으면 true, 쓰기 지연을 사용하지 않거나 redis를 사용할 수 없으면 false (바로 저장해야 함)
+    public boolean buffer(Integer postId, Integer userId) {
+        if (!enabled) {
+            return false;
+        }
+        boolean added;
+        try {
+            added = likeBufferRepository.add(postId, userId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to buffer like on post {}, saving directly. {}", postId, e.toString());
+            return false;
+        }
+        //db에 저장되기 전에 다시 요청한 경우
+        if (!added) {
+            throw new SnsApplicationException(ErrorCode.ALREADY_LIKED,
+                    String.format("userId %d already like post %d", userId, postId));
+        }
+        return true;
+    }
+
+    //아직 db에 저장되지 않은 좋아요 수
+    public long getPendingCount(Integer postId) {
+        if (!enabled) {
+            return 0;
+        }
+        try {
+            return likeBufferRepository.getPending(postId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to get pending likes of post {}. {}", postId, e.toString());
+            return 0;
+        }
+    }
+
+    public Map<Integer, Long> getPendingCounts(Collection<Integer> postIds) {
+        if (!enabled || postIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return likeBufferRepository.getPending(postIds);
+        } catch (RuntimeException e) {
+            log.warn("Failed to get pending likes. {}", e.toString());
+            return Map.of();
+        }
+    }
+
+    //대기열이 batch-size 보다 적게 남을 때까지 묶음 단위로 저장
+    @Scheduled(fixedDelayString = "${sns.like.write-behind.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<String> items;
+        do {
+            try {
+                items = likeBufferRepository.pop(batchSize);
+            } catch (RuntimeException e) {
+                log.warn("Failed to pop buffered likes. {}", e.toString());
+                return;
+            }
+            if (!items.isEmpty() && !save(items)) {
+                pushBack(items);
+                return;
+            }
+        } while (items.size() == batchSize);
+    }
+
+    //처리하던 서버가 종료되어 확인되지 않은 항목을 대기열로 되돌리고, 대기 수를 대기열 기준으로 다시 계산
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${sns.like.write-behind.recover-interval-ms:60000}", initialDelayString = "${sns.like.write-behind.recover-interval-ms:60000}")
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long recovered = likeBufferRepository.recover(Instant.now().minus(processingTimeout));
+            likeBufferRepository.repair();
+            if (recovered > 0) {
+                log.info("Recovered {} unacknowledged buffered likes", recovered);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to recover buffered likes. {}", e.toString());
+        }
+    }
+
+    //종료 전에 대기 중인 좋아요를 저장
+    @PreDestroy
+    void drain() {
+        flush();
+    }
+
+    //db(또는 redis)에 연결할 수 없으면 false (대기열에 되돌려 다음에 다시 저장)
+    //그 외 이유로 묶음 저장에 실패하면 한 건씩 다시 저장하고, 그래도 실패한 항목(탈퇴한 사용자, 이미 저장된 좋아요 등)은 버림
+    private boolean save(List<String> items) {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                saveInTransaction(items);
+                acknowledgeOnCommit(items);
+            });
+        } catch (TransactionException | TransientDataAccessException | DataAccessResourceFailureException e) {
+            log.warn("Failed to save {} buffered likes, will retry. {}", items.size(), e.toString());
+            return false;
+        } catch (RuntimeException e) {
+            if (items.size() == 1) {
+                log.warn("Dropped buffered like {}. {}", items.get(0), e.toString());
+                drop(items);
+                return true;
+            }
+            log.warn("Failed to save {} buffered likes, retrying one by one. {}", items.size(), e.toString());
+            items.forEach(it -> save(List.of(it)));
+        }
+        return true;
+    }
+
+    private void saveInTransaction(List<String> items) {
+        Map<Integer, PostEntity> posts = postEntityRepository.findAllById(items.stream().map(this::getPostId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(PostEntity::getId, Function.identity()));
+
+        List<LikeEntity> likes = new ArrayList<>();
+        List<AlarmEvent> alarms = new ArrayList<>();
+        for (String item : items) {
+            PostEntity postEntity = posts.get(getPostId(item)); //그 사이 삭제된 글은 건너뜀
+            if (postEntity != null) {
+                likes.add(LikeEntity.of(userEntityRepository.getById(getUserId(item)), postEntity));
+                alarms.add(new AlarmEvent(postEntity.getUser().getId(), AlarmType.NEW_LIKE_ON_POST, new AlarmArgs(getUserId(item), postEntity.getId())));
+            }
+        }
+        likeEntityRepository.saveAll(likes);
+        //대기 중에 비트맵이 db에서 만들어진 경우 빠진 좋아요를 커밋 이후 추가함
+        likes.forEach(it -> likedPostRepository.add(it.getUser().getId(), it.getPost().getId()));
+
+        likes.stream()
+                .collect(Collectors.groupingBy(it -> it.getPost().getId(), Collectors.counting()))
+                .forEach((postId, count) -> {
+                    postEntityRepository.addLikeCount(postId, count.intValue());
+                    responseCacheRepository.invalidate(ResponseCacheRepository.postTag(postId));
+                });
+        //알람은 커밋 이후 AlarmWriteService 가 묶어서 저장함
+        alarms.forEach(eventPublisher::publishEvent);
+    }
+
+    //커밋 직전에 대기 수를 줄여 커밋된 좋아요가 db 수와 대기 수에 두 번 더해지지 않게 하고, 커밋 이후 처리 중 목록에서 지움
+    //커밋 직전에 redis에 연결할 수 없으면 롤백되어 다음에 다시 저장함
+    private void acknowledgeOnCommit(List<String> items) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean prepared = false;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                likeBufferRepository.prepare(items);
+                prepared = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!prepared) {
+                    return;
+                }
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        likeBufferRepository.acknowledge(items);
+                    } else {
+                        likeBufferRepository.rollback(items);
+                    }
+                } catch (RuntimeException e) {
+                    //확인되지 않은 항목은 recover 가 대기열로 되돌리고, 이미 저장된 좋아요는 중복으로 버려짐
+                    log.warn("Failed to acknowledge {} buffered likes. {}", items.size(), e.toString());
+                }
+            }
+        });
+    }
+
+    private void drop(List<String> items) {
+        try {
+            likeBufferRepository.drop(items);
+        } catch (RuntimeException e) {
+            log.warn("Failed to drop {} buffered likes. {}", items.size(), e.toString());
+        }
+    }
+
+    private void pushBack(List<String> items) {
+        try {
+            likeBufferRepository.pushBack(items);
+        } catch (RuntimeException e) {
+            log.warn("Failed to push back {} buffered likes. {}", items.size(), e.toString());
+        }
+    }
+
+    private Integer getUserId(String item) {
+        return Integer.valueOf(item.substring(0, item.indexOf(':')));
+    }
+
+    private Integer getPostId(String item) {
+        return Integer.valueOf(item.substring(item.indexOf(':') + 1));
+    }
+}
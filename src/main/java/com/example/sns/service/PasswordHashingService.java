@@ -0,0 +1,69 @@
+package com.example.sns.service;
+
+import com.example.sns.exception.ErrorCode;
+import com.example.sns.exception.SnsApplicationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+//BCrypt 해싱을 톰캣 요청 스레드가 아닌 전용 스레드 풀에서 실행
+//로그인이 몰려도 해싱에 쓰는 CPU는 풀 크기로 제한되고, 대기열이 가득 차면 TOO_MANY_REQUESTS 로 바로 거절
+@Service
+public class PasswordHashingService {
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor passwordHashingExecutor;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(BCryptPasswordEncoder encoder,
+                                  ThreadPoolExecutor passwordHashingExecutor,
+                                  MeterRegistry meterRegistry) {
+        this.encoder = encoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.encodeTimer = meterRegistry.timer("sns.password.hash", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("sns.password.hash", "operation", "matches");
+        this.rejectedCounter = meterRegistry.counter("sns.password.hash.rejected");
+        meterRegistry.gauge("sns.password.hash.queue", passwordHashingExecutor, it -> it.getQueue().size());
+        meterRegistry.gauge("sns.password.hash.active", passwordHashingExecutor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    public String encode(String rawPassword) {
+        return execute(() -> encodeTimer.record(() -> encoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.record(() -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    //설정된 cost 보다 낮은 cost 로 만들어진 해시인지 여부
+    public boolean needsUpgrade(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> task) {
+        try {
+            return passwordHashingExecutor.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new SnsApplicationException(ErrorCode.TOO_MANY_REQUESTS, "password hashing queue is full");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SnsApplicationException(ErrorCode.INTERNAL_SERVER_ERROR, "interrupted while hashing password");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SnsApplicationException(ErrorCode.INTERNAL_SERVER_ERROR, e.getCause().toString());
+        }
+    }
+}
@@ -3,31 +3,69 @@ package com.example.sns.service;
 import com.example.sns.exception.ErrorCode;
 import com.example.sns.exception.SnsApplicationException;
 import com.example.sns.model.AlarmArgs;
+import com.example.sns.model.AlarmEvent;
 import com.example.sns.model.AlarmType;
 import com.example.sns.model.Comment;
 import com.example.sns.model.Post;
+import com.example.sns.model.PostEngagement;
 import com.example.sns.model.entity.*;
+import com.example.sns.model.projection.CommentProjection;
+import com.example.sns.model.projection.PostCountProjection;
+import com.example.sns.model.projection.PostProjection;
 import com.example.sns.repository.*;
+import com.example.sns.util.DataIntegrityUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class PostService {
 
+    private static final String RECONCILE_LOCK_NAME = "sns_post_count_reconcile"; //좋아요/댓글 수 재계산은 한 서버에서만 실행
+
     private final PostEntityRepository postEntityRepository;
     private final UserEntityRepository userEntityRepository;
     private final LikeEntityRepository likeEntityRepository;
     private final CommentEntityRepository commentEntityRepository;
-    private final AlarmRepository alarmRepository;
+    private final CountCacheRepository countCacheRepository;
+    private final ResponseCacheRepository responseCacheRepository;
+    private final TimelineService timelineService;
+    private final PostSearchRepository postSearchRepository;
+    private final TrendingRepository trendingRepository;
+    private final DatabaseLockRepository databaseLockRepository;
+    private final LikeWriteBehindService likeWriteBehindService;
+    private final LikedPostRepository likedPostRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    //좋아요/댓글 수를 다시 계산할 때 한 번에 처리하는 게시글 id 구간 크기
+    @Value("${sns.post.count-reconcile-batch-size:1000}")
+    private int reconcileBatchSize;
 
     @Transactional
     public void create(String title, String body, String userName) {
         UserEntity userEntity = getUserOrException(userName);
-        postEntityRepository.save(PostEntity.of(title, body, userEntity));
+        PostEntity postEntity = postEntityRepository.save(PostEntity.of(title, body, userEntity));
+        timelineService.fanOut(userEntity, postEntity.getId());
+        postSearchRepository.index(postEntity.getId(), title, body);
+        countCacheRepository.increasePostCount(userEntity.getId());
+        responseCacheRepository.invalidate(ResponseCacheRepository.feedTag());
     }
 
     @Transactional
@@ -39,6 +77,9 @@ public class PostService {
 
         postEntity.setTitle(title);
         postEntity.setBody(body);
+        postEntity.setExcerpt(PostEntity.excerptOf(body));
+        postSearchRepository.index(postId, title, body);
+        responseCacheRepository.invalidate(ResponseCacheRepository.feedTag(), ResponseCacheRepository.postTag(postId));
 
         return Post.fromEntity(postEntityRepository.saveAndFlush(postEntity));
     }
@@ -52,15 +93,63 @@ public class PostService {
         validateUserPermission(userName, postId, userEntity, postEntity);
 
         postEntityRepository.delete(postEntity);
+        postSearchRepository.delete(postId);
+        trendingRepository.remove(postId);
+        countCacheRepository.decreasePostCount(userEntity.getId());
+        responseCacheRepository.invalidate(ResponseCacheRepository.feedTag(), ResponseCacheRepository.postTag(postId));
+    }
+
+    //본문은 상세 조회에서만 읽음
+    @Transactional(readOnly = true)
+    public Post detail(Integer postId) {
+        return Post.fromEntity(getPostOrException(postId));
+    }
+
+    //색인에서 관련도 순으로 id를 찾고, 목록과 같은 형태로 db에서 읽어 순서대로 정렬
+    public Page<Post> search(String keyword, Pageable pageable) {
+        Page<Integer> postIds = postSearchRepository.search(keyword, pageable);
+        return new PageImpl<>(findPostsInOrder(postIds.getContent()), pageable, postIds.getTotalElements());
+    }
+
+    //좋아요/댓글 점수가 높은 순 (최근 반응일수록 큰 가중치)
+    public List<Post> trending(Pageable pageable) {
+        return findPostsInOrder(trendingRepository.getTop(Math.min(pageable.getPageSize(), trendingRepository.getMaxSize())));
+    }
+
+    public int rebuildSearchIndex() {
+        return postSearchRepository.rebuild();
     }
 
+    //전체 개수는 매번 COUNT(*) 하지 않고 캐싱된 값을 사용함 (근사값)
+    //피드 목록은 응답 캐시에 저장되며 게시글 작성/수정/삭제 시 무효화됨
     public Page<Post> list(Pageable pageable) {
-        return postEntityRepository.findAll(pageable).map(Post::fromEntity);
+        List<PostProjection> posts = responseCacheRepository.get(ResponseCacheRepository.feedTag(), "feed:" + pageKey(pageable),
+                new TypeReference<>() {}, () -> postEntityRepository.findProjections(pageable).getContent());
+        return new PageImpl<>(posts, pageable, countCacheRepository.getPostCount()).map(Post::fromProjection);
     }
 
     public Page<Post> my(String userName, Pageable pageable) {
         UserEntity userEntity = getUserOrException(userName);
-        return postEntityRepository.findAllByUser(userEntity, pageable).map(Post::fromEntity);
+        Slice<Post> posts = postEntityRepository.findProjectionsByUser(userEntity, pageable).map(Post::fromProjection);
+        return new PageImpl<>(posts.getContent(), pageable, countCacheRepository.getUserPostCount(userEntity.getId()));
+    }
+
+    public Slice<Post> listSlice(Pageable pageable) {
+        return postEntityRepository.findProjections(pageable).map(Post::fromProjection);
+    }
+
+    public Slice<Post> mySlice(String userName, Pageable pageable) {
+        UserEntity userEntity = getUserOrException(userName);
+        return postEntityRepository.findProjectionsByUser(userEntity, pageable).map(Post::fromProjection);
+    }
+
+    public Slice<Post> list(Integer cursor, Pageable pageable) {
+        return postEntityRepository.findProjectionsBefore(cursor, pageable).map(Post::fromProjection);
+    }
+
+    public Slice<Post> my(String userName, Integer cursor, Pageable pageable) {
+        UserEntity userEntity = getUserOrException(userName);
+        return postEntityRepository.findProjectionsByUserBefore(userEntity, cursor, pageable).map(Post::fromProjection);
     }
 
     @Transactional
@@ -68,19 +157,57 @@ public class PostService {
         UserEntity userEntity = getUserOrException(userName);
         PostEntity postEntity = getPostOrException(postId);
 
-        checkLikeStatus(postId, userName, userEntity, postEntity);
-        likeEntityRepository.save(LikeEntity.of(userEntity, postEntity));
-        alarmRepository.save(AlarmEntity.of(
-                        postEntity.getUser(),
-                        AlarmType.NEW_LIKE_ON_POST,
-                        new AlarmArgs(userEntity.getId(), postId)
-                )
-        );
+        trendingRepository.increaseLikeScore(postId);
+        likedPostRepository.add(userEntity.getId(), postId);
+        //쓰기 지연 모드면 redis 대기열에 넣고 바로 응답, 좋아요/알람은 LikeWriteBehindService 가 묶어서 저장함
+        //db 저장이 나중에 일어나므로 이미 저장된 좋아요는 여기서 확인함
+        if (likeWriteBehindService.isEnabled()) {
+            checkLikeStatus(postId, userName, userEntity, postEntity);
+            if (likeWriteBehindService.buffer(postId, userEntity.getId())) {
+                return;
+            }
+        }
+        insertLike(postId, userName, userEntity, postEntity);
+        postEntityRepository.addLikeCount(postId, 1);
+        responseCacheRepository.invalidate(ResponseCacheRepository.postTag(postId));
+        //알람은 커밋 이후 AlarmWriteService 가 묶어서 저장함
+        eventPublisher.publishEvent(new AlarmEvent(
+                postEntity.getUser().getId(),
+                AlarmType.NEW_LIKE_ON_POST,
+                new AlarmArgs(userEntity.getId(), postId)
+        ));
+    }
+
+    //목록의 좋아요 수, 댓글 수는 게시글마다 조회하지 않고 IN 쿼리 한 번으로 조회, 캐싱된 목록이어도 항상 현재 카운터 값으로 채워짐
+    //좋아요 여부는 사용자별 좋아요 비트맵으로 db 조회 없이 확인함
+    public Map<Integer, PostEngagement> getEngagements(Collection<Integer> postIds, Integer userId) {
+        if (postIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, Long> pendingLikes = likeWriteBehindService.getPendingCounts(postIds);
+        return postEntityRepository.findCountsByIdIn(postIds).stream()
+                .collect(Collectors.toMap(PostCountProjection::getId, it -> new PostEngagement(
+                        it.getLikeCount() + pendingLikes.getOrDefault(it.getId(), 0L).intValue(),
+                        it.getCommentCount(),
+                        userId != null && likedPostRepository.isLiked(userId, it.getId()))));
     }
 
+    //아직 db에 저장되지 않은(쓰기 지연) 좋아요 수를 더해서 응답
     public int likeCount(Integer postId) {
-        PostEntity postEntity = getPostOrException(postId);
-        return likeEntityRepository.countByPost(postEntity);
+        return (int) likeWriteBehindService.getPendingCount(postId) + responseCacheRepository.get(ResponseCacheRepository.postTag(postId), "likes:" + postId,
+                new TypeReference<Integer>() {}, () -> postEntityRepository.findLikeCountById(postId).orElseThrow(() ->
+                        new SnsApplicationException(ErrorCode.POST_NOT_FOUND, String.format("%s not founded", postId))));
+    }
+
+    //좋아요/댓글 저장과 카운터 갱신 사이의 오류 등으로 어긋난 값을 실제 행 수 기준으로 바로잡음
+    @Scheduled(fixedDelayString = "${sns.post.count-reconcile-interval-ms:3600000}", initialDelayString = "${sns.post.count-reconcile-interval-ms:3600000}")
+    public void reconcileCounts() {
+        databaseLockRepository.executeWithLock(RECONCILE_LOCK_NAME, template -> {
+            int maxId = postEntityRepository.findMaxId().orElse(0);
+            for (int fromId = 1; fromId <= maxId; fromId += reconcileBatchSize) {
+                postEntityRepository.reconcileCounts(fromId, fromId + reconcileBatchSize);
+            }
+        });
     }
 
     @Transactional
@@ -89,29 +216,61 @@ public class PostService {
         PostEntity postEntity = getPostOrException(postId);
 
         commentEntityRepository.save(CommentEntity.of(userEntity, postEntity, comment));
-        alarmRepository.save(AlarmEntity.of(
-                postEntity.getUser(),
+        postEntityRepository.addCommentCount(postId, 1);
+        trendingRepository.increaseCommentScore(postId);
+        responseCacheRepository.invalidate(ResponseCacheRepository.postTag(postId));
+        eventPublisher.publishEvent(new AlarmEvent(
+                postEntity.getUser().getId(),
                 AlarmType.NEW_COMMENT_ON_POST,
                 new AlarmArgs(userEntity.getId(), postId)
-                )
-        );
+        ));
+        countCacheRepository.increaseCommentCount(postId);
     }
 
 
 
     public Page<Comment> getComments(Integer postId, Pageable pageable) {
+        List<CommentProjection> comments = responseCacheRepository.get(ResponseCacheRepository.postTag(postId), "comments:" + postId + ":" + pageKey(pageable),
+                new TypeReference<>() {}, () -> commentEntityRepository.findProjectionsByPost(getPostOrException(postId), pageable).getContent());
+        return new PageImpl<>(comments, pageable, countCacheRepository.getCommentCount(postId)).map(Comment::fromProjection);
+    }
+
+    public Slice<Comment> getCommentSlice(Integer postId, Pageable pageable) {
         PostEntity postEntity = getPostOrException(postId);
-        return commentEntityRepository.findAllByPost(postEntity, pageable).map(Comment::fromEntity);
+        return commentEntityRepository.findProjectionsByPost(postEntity, pageable).map(Comment::fromProjection);
+    }
+
+    public Slice<Comment> getComments(Integer postId, Integer cursor, Pageable pageable) {
+        PostEntity postEntity = getPostOrException(postId);
+        return commentEntityRepository.findProjectionsByPostBefore(postEntity, cursor, pageable).map(Comment::fromProjection);
     }
 
 
     private static void validateUserPermission(String userName, Integer postId, UserEntity userEntity, PostEntity postEntity) {
-        if (postEntity.getUser() != userEntity) {
+        //user 는 지연 로딩(프록시)이므로 인스턴스가 아닌 id 로 비교함
+        if (!Objects.equals(postEntity.getUser().getId(), userEntity.getId())) {
             throw new SnsApplicationException(ErrorCode.INVALID_PERMISSION,
                     String.format("%s has no permission with %s", userName, postId));
         }
     }
 
+    //id 목록 순서대로 목록용 게시글을 조회, 삭제된 글은 제외
+    private List<Post> findPostsInOrder(List<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, PostProjection> posts = postEntityRepository.findProjectionsByIdIn(postIds).stream()
+                .collect(Collectors.toMap(PostProjection::getId, Function.identity()));
+        return postIds.stream()
+                .filter(posts::containsKey)
+                .map(it -> Post.fromProjection(posts.get(it)))
+                .collect(Collectors.toList());
+    }
+
+    private static String pageKey(Pageable pageable) {
+        return pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+    }
+
     private PostEntity getPostOrException(Integer postId) {
         return postEntityRepository.findById(postId).orElseThrow(() ->
                 new SnsApplicationException(ErrorCode.POST_NOT_FOUND, String.format("%s not founded", postId)));
@@ -122,6 +281,20 @@ public class PostService {
                 new SnsApplicationException(ErrorCode.USER_NOT_FOUND, String.format("%s not founded", userName)));
     }
 
+    //조회 없이 바로 insert 하고 (user_id, post_id) unique 제약 위반이면 이미 좋아요 한 것으로 처리
+    //조회 후 저장하면 동시 요청이 모두 조회를 통과해 중복 저장될 수 있음
+    private void insertLike(Integer postId, String userName, UserEntity userEntity, PostEntity postEntity) {
+        try {
+            likeEntityRepository.save(LikeEntity.of(userEntity, postEntity));
+        } catch (DataIntegrityViolationException e) {
+            if (DataIntegrityUtils.isViolationOf(e, LikeEntity.UNIQUE_USER_POST)) {
+                throw new SnsApplicationException(ErrorCode.ALREADY_LIKED,
+                        String.format("userName %s already like post %d", userName, postId));
+            }
+            throw e;
+        }
+    }
+
     private void checkLikeStatus(Integer postId, String userName, UserEntity userEntity, PostEntity postEntity) {
         likeEntityRepository.findByUserAndPost(userEntity, postEntity).ifPresent(it -> {
             throw new SnsApplicationException(ErrorCode.ALREADY_LIKED,
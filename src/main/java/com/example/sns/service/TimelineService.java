@@ -0,0 +1,124 @@
+package com.example.sns.service;
+
+import com.example.sns.exception.ErrorCode;
+import com.example.sns.exception.SnsApplicationException;
+import com.example.sns.model.Post;
+import com.example.sns.model.entity.UserEntity;
+import com.example.sns.model.projection.PostProjection;
+import com.example.sns.repository.FollowEntityRepository;
+import com.example.sns.repository.PostEntityRepository;
+import com.example.sns.repository.TimelineRepository;
+import com.example.sns.repository.UserEntityRepository;
+import com.example.sns.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//홈 타임라인 : 글 작성 시 팔로워의 타임라인에 게시글 id를 넣고(push), 팔로워가 많은 사용자의 글은 조회 시 합침(pull)
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private final TimelineRepository timelineRepository;
+    private final FollowEntityRepository followEntityRepository;
+    private final PostEntityRepository postEntityRepository;
+    private final UserEntityRepository userEntityRepository;
+
+    //팔로워가 이 수 이상이면 글 작성 시 팔로워 타임라인에 넣지 않고 조회 시 가져옴
+    @Value("${sns.timeline.celebrity-threshold:10000}")
+    private int celebrityThreshold;
+
+    //작성자 본인과 팔로워의 타임라인에 게시글 추가, 커밋 이후에 실행됨
+    public void fanOut(UserEntity author, Integer postId) {
+        Integer authorId = author.getId();
+        boolean celebrity = isCelebrity(author);
+        TransactionUtils.afterCommit(() -> {
+            List<Integer> userIds = new ArrayList<>();
+            userIds.add(authorId);
+            if (!celebrity) {
+                userIds.addAll(followEntityRepository.findFollowerIds(authorId));
+            }
+            timelineRepository.push(userIds, postId);
+        });
+    }
+
+    //팔로우 시 대상의 최근 글을 타임라인에 채움 (pull 대상이면 조회 시 합쳐지므로 생략)
+    public void backfill(UserEntity follower, UserEntity following) {
+        if (isCelebrity(following)) {
+            return;
+        }
+        Integer followerId = follower.getId();
+        Integer followingId = following.getId();
+        TransactionUtils.afterCommit(() -> timelineRepository.pushAll(followerId,
+                postEntityRepository.findRecentIdsByUserId(followingId, PageRequest.of(0, timelineRepository.getMaxSize()))));
+    }
+
+    public void removeAuthor(UserEntity follower, UserEntity following) {
+        Integer followerId = follower.getId();
+        Integer followingId = following.getId();
+        TransactionUtils.afterCommit(() -> timelineRepository.removeAll(followerId,
+                postEntityRepository.findRecentIdsByUserId(followingId, PageRequest.of(0, timelineRepository.getMaxSize()))));
+    }
+
+    //push 된 게시글 id와 pull 대상 사용자의 글을 id 역순으로 합쳐 한 페이지만 조회
+    //redis 타임라인은 최근 max-size 개만 있고 만료/채우기 실패로 비어 있을 수 있으므로, 저장된 id로 페이지를 채울 수 없으면 db에서 조회
+    public Slice<Post> timeline(String userName, Integer cursor, Pageable pageable) {
+        UserEntity userEntity = userEntityRepository.findByUserName(userName).orElseThrow(() ->
+                new SnsApplicationException(ErrorCode.USER_NOT_FOUND, String.format("%s not founded", userName)));
+        Integer userId = userEntity.getId();
+        int size = pageable.getPageSize();
+
+        List<Integer> pullUserIds = null;
+        List<Post> content = new ArrayList<>();
+        Integer scanCursor = cursor;
+        while (true) {
+            int remaining = size - content.size();
+            Optional<List<Integer>> pushedIds = timelineRepository.getBefore(userId, scanCursor, remaining + 1);
+            if (pushedIds.isEmpty() || pushedIds.get().size() <= remaining) {
+                Slice<PostProjection> rest = postEntityRepository.findTimelineProjectionsBefore(userId, scanCursor, PageRequest.of(0, remaining));
+                rest.forEach(it -> content.add(Post.fromProjection(it)));
+                return new SliceImpl<>(content, pageable, rest.hasNext());
+            }
+
+            if (pullUserIds == null) {
+                pullUserIds = followEntityRepository.findFollowingIdsByMinFollowerCount(userId, celebrityThreshold);
+            }
+            Slice<PostProjection> pulled = pullUserIds.isEmpty()
+                    ? new SliceImpl<>(List.of())
+                    : postEntityRepository.findProjectionsByUserIdsBefore(pullUserIds, scanCursor, PageRequest.of(0, remaining));
+
+            TreeSet<Integer> ids = new TreeSet<>(Comparator.reverseOrder());
+            ids.addAll(pushedIds.get());
+            pulled.forEach(it -> ids.add(it.getId()));
+            List<Integer> pageIds = ids.stream().limit(remaining).collect(Collectors.toList());
+            boolean hasNext = ids.size() > remaining || pulled.hasNext();
+
+            Map<Integer, PostProjection> posts = pulled.stream().collect(Collectors.toMap(PostProjection::getId, Function.identity()));
+            List<Integer> missingIds = pageIds.stream().filter(it -> !posts.containsKey(it)).collect(Collectors.toList());
+            if (!missingIds.isEmpty()) {
+                postEntityRepository.findProjectionsByIdIn(missingIds).forEach(it -> posts.put(it.getId(), it));
+            }
+
+            //삭제된 글은 타임라인에 id가 남아 있어도 조회되지 않으므로 건너뛰고, 모자란 만큼 마지막으로 확인한 id 다음부터 이어서 조회
+            pageIds.stream()
+                    .filter(posts::containsKey)
+                    .forEach(it -> content.add(Post.fromProjection(posts.get(it))));
+            if (content.size() == size || !hasNext) {
+                return new SliceImpl<>(content, pageable, hasNext);
+            }
+            scanCursor = pageIds.get(pageIds.size() - 1);
+        }
+    }
+
+    private boolean isCelebrity(UserEntity userEntity) {
+        return Optional.ofNullable(userEntity.getFollowerCount()).orElse(0) >= celebrityThreshold;
+    }
+}
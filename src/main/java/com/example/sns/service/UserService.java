@@ -4,25 +4,46 @@ import com.example.sns.exception.ErrorCode;
 import com.example.sns.exception.SnsApplicationException;
 import com.example.sns.model.Alarm;
 import com.example.sns.model.User;
+import com.example.sns.model.UserRole;
 import com.example.sns.model.entity.UserEntity;
+import com.example.sns.repository.AlarmPartitionRepository;
 import com.example.sns.repository.AlarmRepository;
+import com.example.sns.repository.CountCacheRepository;
+import com.example.sns.repository.TokenRevocationRepository;
+import com.example.sns.repository.TokenVersionCacheRepository;
+import com.example.sns.repository.UserCacheRepository;
 import com.example.sns.repository.UserEntityRepository;
+import com.example.sns.repository.UserNameFilterRepository;
+import com.example.sns.util.JwtClaims;
 import com.example.sns.util.JwtTokenUtils;
+import com.example.sns.util.JwtTokenVerifier;
+import com.example.sns.util.TransactionUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserEntityRepository userEntityRepository;
     private final AlarmRepository alarmRepository;
-    private final BCryptPasswordEncoder encoder;
+    private final AlarmPartitionRepository alarmPartitionRepository;
+    private final UserCacheRepository userCacheRepository;
+    private final UserNameFilterRepository userNameFilterRepository;
+    private final TokenVersionCacheRepository tokenVersionCacheRepository;
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final PasswordHashingService passwordHashingService;
+    private final CountCacheRepository countCacheRepository;
 
     @Value("${jwt.secret-key}")
     private String secretKey;
@@ -30,43 +51,129 @@ public class UserService {
     @Value("${jwt.token.expired-time-ms}")
     private Long expiredTimeMs;
 
+    @Value("${jwt.token.stateless:false}")
+    private boolean statelessToken;
+
     public User loadUserByUserName(String userName) {
-        return userEntityRepository.findByUserName(userName).map(User::fromEntity).orElseThrow(() ->
+        //캐시에 없을 때만 db에서 조회하고, 조회한 결과는 캐시에 저장
+        return userCacheRepository.getUser(userName).orElseGet(() -> {
+            User user = findUserEntity(userName).map(User::fromEntity).orElseThrow(() ->
+                    new SnsApplicationException(ErrorCode.USER_NOT_FOUND, String.format("%s not founded", userName)));
+            userCacheRepository.setUser(user);
+            return user;
+        });
+    }
+
+    //stateless 토큰은 클레임으로 인증 정보를 만들고, 버전/권한/삭제 여부만 캐시로 확인
+    public User loadUserByClaims(JwtClaims claims) {
+        if (!claims.isSelfContained()) {
+            return loadUserByUserName(claims.getUserName());
+        }
+
+        if (!tokenVersionCacheRepository.isValid(claims)) {
+            throw new SnsApplicationException(ErrorCode.INVALID_TOKEN, String.format("token of %s is no longer valid", claims.getUserName()));
+        }
+        return User.of(claims.getUserId(), claims.getUserName(), claims.getRole());
+    }
+
+    //권한을 바꾸고 사용자에게 발급된 모든 stateless 토큰을 무효화 (관리자)
+    @Transactional
+    public void changeRole(String userName, UserRole role) {
+        UserEntity userEntity = userEntityRepository.findByUserName(userName).orElseThrow(() ->
                 new SnsApplicationException(ErrorCode.USER_NOT_FOUND, String.format("%s not founded", userName)));
+
+        userEntity.setRole(role);
+        userEntityRepository.save(userEntity);
+        userEntityRepository.increaseTokenVersion(userEntity.getId());
+        //커밋 전에 캐시를 지우면 그 사이 이전 버전이 다시 캐싱될 수 있음
+        TransactionUtils.afterCommit(() -> {
+            tokenVersionCacheRepository.evict(userEntity.getId());
+            userCacheRepository.evict(userName);
+        });
     }
 
     @Transactional
     public User join(String userName, String password){
         //회원가입하려는 이름으로 회원가입된 유저가 있는지
-        userEntityRepository.findByUserName(userName).ifPresent(it -> {
+        findUserEntity(userName).ifPresent(it -> {
             throw new SnsApplicationException(ErrorCode.DUPLICATED_USER_NAME, String.format("%s is duplicated", userName));
         });
 
-        UserEntity userEntity = userEntityRepository.save(UserEntity.of(userName, encoder.encode(password)));
+        UserEntity userEntity;
+        try {
+            userEntity = userEntityRepository.save(UserEntity.of(userName, passwordHashingService.encode(password)));
+        } catch (DataIntegrityViolationException e) { //동시에 같은 이름으로 가입한 경우 유니크 인덱스에서 걸러짐
+            throw new SnsApplicationException(ErrorCode.DUPLICATED_USER_NAME, String.format("%s is duplicated", userName));
+        }
+        userNameFilterRepository.add(userName);
 
         return User.fromEntity(userEntity);
     }
 
     public String login(String userName, String password){
         //회원가입 여부 체크
-        UserEntity userEntity = userEntityRepository.findByUserName(userName).orElseThrow(() ->
+        UserEntity userEntity = findUserEntity(userName).orElseThrow(() ->
                 new SnsApplicationException(ErrorCode.USER_NOT_FOUND, String.format("%s not founded", userName)));
 
         //비밀번호 체크
-        if (!encoder.matches(password, userEntity.getPassword())) {
+        if (!passwordHashingService.matches(password, userEntity.getPassword())) {
             throw new SnsApplicationException(ErrorCode.INVALID_PASSWORD);
         }
 
+        //BCrypt cost 가 올라간 경우 로그인 시점에 새 cost 로 다시 해싱해 저장
+        if (passwordHashingService.needsUpgrade(userEntity.getPassword())) {
+            userEntity.setPassword(passwordHashingService.encode(password));
+            userEntityRepository.save(userEntity);
+        }
+
         //토큰 생성
-        String token = JwtTokenUtils.generateToken(userName, secretKey, expiredTimeMs);
+        String token = statelessToken
+                ? JwtTokenUtils.generateToken(userName, userEntity.getId(), userEntity.getRole(), userEntity.getTokenVersion(), secretKey, expiredTimeMs)
+                : JwtTokenUtils.generateToken(userName, secretKey, expiredTimeMs);
 
         return token;
     }
 
+    //토큰을 만료 시각까지 폐기 목록에 등록
+    public void logout(String token) {
+        JwtClaims claims = jwtTokenVerifier.verify(token);
+        //jti 가 추가되기 전에 발급된 토큰은 폐기할 수 없음
+        if (claims.getTokenId() == null) {
+            throw new SnsApplicationException(ErrorCode.INVALID_TOKEN, String.format("token of %s has no token id", claims.getUserName()));
+        }
+        tokenRevocationRepository.revoke(claims.getTokenId(), claims.getExpiration());
+    }
+
+    //블룸 필터에 없는 이름은 db를 조회하지 않고 바로 없는 것으로 처리 (필터가 db와 동기화된 경우)
+    private Optional<UserEntity> findUserEntity(String userName) {
+        if (!userNameFilterRepository.mightExist(userName)) {
+            return Optional.empty();
+        }
+        return userEntityRepository.findByUserName(userName);
+    }
+
     public Page<Alarm> alarmList(String userName, Pageable pageable) {
         UserEntity userEntity = userEntityRepository.findByUserName(userName).orElseThrow(() ->
                 new SnsApplicationException(ErrorCode.USER_NOT_FOUND, String.format("%s not founded", userName)));
 
-        return alarmRepository.findAllByUser(userEntity, pageable).map(Alarm::fromEntity);
+        User user = User.fromEntity(userEntity);
+        Slice<Alarm> alarms = alarmRepository.findProjectionsByUser(userEntity, alarmPartitionRepository.getRetentionStart(), pageable).map(it -> Alarm.fromProjection(it, user));
+        return new PageImpl<>(alarms.getContent(), pageable, countCacheRepository.getAlarmCount(userEntity.getId()));
+    }
+
+    public Slice<Alarm> alarmSlice(String userName, Pageable pageable) {
+        UserEntity userEntity = userEntityRepository.findByUserName(userName).orElseThrow(() ->
+                new SnsApplicationException(ErrorCode.USER_NOT_FOUND, String.format("%s not founded", userName)));
+
+        User user = User.fromEntity(userEntity);
+        return alarmRepository.findProjectionsByUser(userEntity, alarmPartitionRepository.getRetentionStart(), pageable).map(it -> Alarm.fromProjection(it, user));
+    }
+
+    public Slice<Alarm> alarmList(String userName, Integer cursor, Pageable pageable) {
+        UserEntity userEntity = userEntityRepository.findByUserName(userName).orElseThrow(() ->
+                new SnsApplicationException(ErrorCode.USER_NOT_FOUND, String.format("%s not founded", userName)));
+
+        User user = User.fromEntity(userEntity);
+        return alarmRepository.findProjectionsByUserBefore(userEntity, alarmPartitionRepository.getRetentionStart(), cursor, pageable).map(it -> Alarm.fromProjection(it, user));
     }
 }
@@ -0,0 +1,36 @@
+package com.example.sns.util;
+
+import com.example.sns.exception.ErrorCode;
+import com.example.sns.exception.SnsApplicationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+//커서 기반 페이지네이션 유틸, 커서는 마지막으로 받은 항목의 id를 인코딩한 값으로 클라이언트는 내용을 알 필요 없음
+public class CursorUtils {
+
+    private static final int MAX_SIZE = 100;
+
+    public static String encode(Integer id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    //커서가 없으면 첫 페이지(가장 최신 항목부터)
+    public static Integer decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Integer.MAX_VALUE;
+        }
+        try {
+            return Integer.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new SnsApplicationException(ErrorCode.INVALID_CURSOR, String.format("%s is invalid", cursor));
+        }
+    }
+
+    //offset 없이 limit 만 적용, Slice 조회 시 size + 1 건으로 다음 페이지 존재 여부를 확인함
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, Math.min(Math.max(size, 1), MAX_SIZE));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.sns.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+//조회 후 저장하면 동시 요청이 모두 조회를 통과해 중복 저장될 수 있으므로, 바로 저장하고 unique 제약 위반으로 중복을 확인함
+public class DataIntegrityUtils {
+
+    //db 마다 제약 이름 앞뒤에 스키마, 인덱스 번호 등을 붙여서 알려주므로 포함 여부로 확인함
+    public static boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        String violated = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return violated != null && violated.toLowerCase().contains(constraintName);
+    }
+}
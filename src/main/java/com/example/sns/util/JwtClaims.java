@@ -0,0 +1,45 @@
+package com.example.sns.util;
+
+import com.example.sns.model.UserRole;
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+//서명 검증이 끝난 토큰의 클레임, 캐시에 공유되므로 변경 불가능한 객체로 사용
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class JwtClaims {
+
+    private final String tokenId;
+    private final String userName;
+    private final Integer userId; //아래 세 값은 stateless 토큰에만 존재
+    private final UserRole role;
+    private final Integer tokenVersion;
+    private final Instant issuedAt;
+    private final Instant expiration;
+
+    public static JwtClaims from(Claims claims) {
+        String role = claims.get("role", String.class);
+        return new JwtClaims(
+                claims.getId(),
+                claims.get("userName", String.class),
+                claims.get("userId", Integer.class),
+                role == null ? null : UserRole.valueOf(role),
+                claims.get("ver", Integer.class),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    //사용자 조회 없이 토큰만으로 인증 정보를 만들 수 있는지 여부
+    public boolean isSelfContained() {
+        return userId != null && role != null && tokenVersion != null;
+    }
+
+    public boolean isExpired() {
+        return expiration.isBefore(Instant.now());
+    }
+}
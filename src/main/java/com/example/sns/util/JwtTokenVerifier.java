@@ -0,0 +1,81 @@
+package com.example.sns.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+//요청마다 키와 파서를 새로 만들지 않고, 한 번 생성한 파서로 토큰을 한 번만 파싱해 검증
+//검증된 토큰은 만료될 때까지 토큰 해시를 키로 캐싱해 같은 토큰의 HMAC 검증을 반복하지 않음
+@Component
+public class JwtTokenVerifier {
+
+    private final JwtParser parser;
+    private final Cache<String, JwtClaims> verifiedTokenCache;
+
+    public JwtTokenVerifier(@Value("${jwt.secret-key}") String key,
+                            @Value("${sns.cache.jwt.max-size:10000}") long maxSize,
+                            MeterRegistry meterRegistry) {
+        this.parser = Jwts.parserBuilder().setSigningKey(JwtTokenUtils.getKey(key)).build();
+        this.verifiedTokenCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, JwtClaims>() { //토큰의 만료 시각에 맞춰 캐시에서 제거
+                    @Override
+                    public long expireAfterCreate(String hash, JwtClaims claims, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), claims.getExpiration()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String hash, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokenCache, "verifiedToken");
+    }
+
+    //서명이 잘못되었거나 만료된 토큰은 JwtException을 던짐
+    public JwtClaims verify(String token) {
+        String hash = hash(token);
+        JwtClaims claims = verifiedTokenCache.getIfPresent(hash);
+        if (claims != null) {
+            if (claims.isExpired()) {
+                verifiedTokenCache.invalidate(hash);
+                throw new ExpiredJwtException(null, null, "Token is expired");
+            }
+            return claims;
+        }
+
+        claims = JwtClaims.from(parser.parseClaimsJws(token).getBody());
+        verifiedTokenCache.put(hash, claims);
+        return claims;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
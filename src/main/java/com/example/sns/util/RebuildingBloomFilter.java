@@ -0,0 +1,56 @@
+package com.example.sns.util;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+//주기적으로 원본(db, redis)에서 다시 만드는 블룸 필터
+//다시 만드는 동안 추가된 값은 따로 모아 두었다가 새 필터로 교체할 때 함께 넣으므로 교체 중에 값이 유실되지 않음
+//원본에 먼저 저장한 뒤 put 해야 함, 그래야 재생성이 원본을 읽기 전에 저장된 값은 원본에서, 이후 값은 모아 둔 값에서 반영됨
+public class RebuildingBloomFilter {
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Object rebuildLock = new Object();
+
+    private volatile BloomFilter bloomFilter;
+    private Set<String> pending; //재생성 중에 추가된 값, 재생성 중이 아니면 null
+
+    public RebuildingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = BloomFilter.create(expectedInsertions, falsePositiveRate);
+    }
+
+    public synchronized void put(String value) {
+        bloomFilter.put(value);
+        if (pending != null) {
+            pending.add(value);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        return bloomFilter.mightContain(value);
+    }
+
+    //loader 가 원본의 모든 값을 새 필터에 넣음, 예외가 나면 기존 필터를 그대로 사용
+    public void rebuild(Consumer<BloomFilter> loader) {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new HashSet<>();
+            }
+            try {
+                BloomFilter rebuilt = BloomFilter.create(expectedInsertions, falsePositiveRate);
+                loader.accept(rebuilt);
+                synchronized (this) {
+                    pending.forEach(rebuilt::put);
+                    bloomFilter = rebuilt;
+                }
+            } finally {
+                synchronized (this) {
+                    pending = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.sns.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//트랜잭션 밖의 저장소(redis, 캐시 등)에 대한 작업은 커밋된 이후에 실행해야 롤백된 데이터가 반영되지 않음
+public class TransactionUtils {
+
+    //트랜잭션 중이면 커밋 이후에, 아니면 바로 실행
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
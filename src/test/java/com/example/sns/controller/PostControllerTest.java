@@ -7,7 +7,10 @@ import com.example.sns.exception.ErrorCode;
 import com.example.sns.exception.SnsApplicationException;
 import com.example.sns.fixture.PostEntityFixture;
 import com.example.sns.model.Post;
+import com.example.sns.model.PostEngagement;
+import com.example.sns.model.entity.PostEntity;
 import com.example.sns.service.PostService;
+import com.example.sns.service.TimelineService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,17 +18,25 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -36,6 +47,7 @@ public class PostControllerTest {
     @Autowired private ObjectMapper objectMapper;
 
     @MockBean private PostService postService;
+    @MockBean private TimelineService timelineService;
 
     @Test
     @WithMockUser
@@ -203,6 +215,93 @@ public class PostControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser
+    void 피드목록_전체개수_없이_요청() throws Exception{
+
+        when(postService.listSlice(any())).thenReturn(new SliceImpl<>(List.of()));
+
+        mockMvc.perform(get("/api/v1/posts?count=false")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.hasNext").value(false));
+
+        verify(postService, never()).list(any());
+    }
+
+    @Test
+    @WithMockUser
+    void 피드목록_커서() throws Exception{
+
+        when(postService.list(any(), any())).thenReturn(new SliceImpl<>(List.of()));
+
+        mockMvc.perform(get("/api/v1/posts/cursor")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser
+    void 피드목록_커서가_잘못된경우() throws Exception{
+
+        mockMvc.perform(get("/api/v1/posts/cursor?cursor=invalid")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void 포스트상세조회() throws Exception{
+
+        PostEntity postEntity = PostEntityFixture.get("userName", 1, 1);
+        postEntity.setBody("body");
+        when(postService.detail(1)).thenReturn(Post.fromEntity(postEntity));
+
+        mockMvc.perform(get("/api/v1/posts/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.body").value("body"));
+    }
+
+    @Test
+    @WithMockUser
+    void 포스트상세조회시_포스트가_없는경우() throws Exception{
+
+        when(postService.detail(1)).thenThrow(new SnsApplicationException(ErrorCode.POST_NOT_FOUND));
+
+        mockMvc.perform(get("/api/v1/posts/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    void 타임라인() throws Exception{
+
+        when(timelineService.timeline(any(), any(), any())).thenReturn(new SliceImpl<>(List.of()));
+
+        mockMvc.perform(get("/api/v1/posts/timeline")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.hasNext").value(false));
+    }
+
+    @Test
+    @WithAnonymousUser
+    void 타임라인_요청시_로그인하지_않은경우() throws Exception{
+
+        mockMvc.perform(get("/api/v1/posts/timeline")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     @WithMockUser
     void 내피드목록() throws Exception{
@@ -294,4 +393,71 @@ public class PostControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser
+    void 포스트검색() throws Exception{
+
+        when(postService.search(eq("keyword"), any())).thenReturn(Page.empty());
+
+        mockMvc.perform(get("/api/v1/posts/search")
+                        .param("keyword", "keyword")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void 검색색인_재생성() throws Exception{
+
+        when(postService.rebuildSearchIndex()).thenReturn(3);
+
+        mockMvc.perform(post("/api/v1/posts/search/rebuild")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(3));
+    }
+
+    @Test
+    @WithMockUser
+    void 검색색인_재생성시_관리자가_아닌경우() throws Exception{
+
+        mockMvc.perform(post("/api/v1/posts/search/rebuild")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isForbidden());
+
+        verify(postService, never()).rebuildSearchIndex();
+    }
+
+    @Test
+    @WithMockUser
+    void 인기게시글목록() throws Exception{
+
+        when(postService.trending(any())).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/posts/trending")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser
+    void 피드목록_응답에_좋아요수_댓글수_좋아요여부가_포함된다() throws Exception{
+
+        Post post = Post.fromEntity(PostEntityFixture.get("userName", 1, 1));
+        when(postService.list(any())).thenReturn(new PageImpl<>(List.of(post)));
+        when(postService.getEngagements(eq(List.of(1)), any())).thenReturn(Map.of(1, new PostEngagement(5, 2, true)));
+
+        mockMvc.perform(get("/api/v1/posts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.content[0].likeCount").value(5))
+                .andExpect(jsonPath("$.result.content[0].commentCount").value(2))
+                .andExpect(jsonPath("$.result.content[0].likedByMe").value(true));
+    }
+
 }
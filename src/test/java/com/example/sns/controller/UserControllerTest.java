@@ -2,9 +2,16 @@ package com.example.sns.controller;
 
 import com.example.sns.controller.request.UserJoinRequest;
 import com.example.sns.controller.request.UserLoginRequest;
+import com.example.sns.controller.request.UserRoleChangeRequest;
 import com.example.sns.exception.ErrorCode;
 import com.example.sns.exception.SnsApplicationException;
+import com.example.sns.model.Alarm;
+import com.example.sns.model.AlarmArgs;
+import com.example.sns.model.AlarmType;
 import com.example.sns.model.User;
+import com.example.sns.model.UserRole;
+import com.example.sns.service.AlarmService;
+import com.example.sns.service.FollowService;
 import com.example.sns.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -13,17 +20,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -39,6 +53,12 @@ public class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private FollowService followService;
+
+    @MockBean
+    private AlarmService alarmService;
+
     @Test
     public void 회원가입() throws Exception{
         String userName = "userName";
@@ -112,6 +132,98 @@ public class UserControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    public void 로그인시_비밀번호_해싱_대기열이_가득찬경우_에러반환() throws Exception{
+        String userName = "userName";
+        String password = "password";
+
+        when(userService.login(userName, password)).thenThrow(new SnsApplicationException(ErrorCode.TOO_MANY_REQUESTS));
+
+        mockMvc.perform(post("/api/v1/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(new UserLoginRequest(userName, password)))
+                ).andDo(print())
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void 권한변경() throws Exception {
+        mockMvc.perform(put("/api/v1/users/target/role")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(new UserRoleChangeRequest(UserRole.ADMIN))))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(userService).changeRole("target", UserRole.ADMIN);
+    }
+
+    @Test
+    @WithMockUser
+    void 권한변경시_관리자가_아닌경우() throws Exception {
+        mockMvc.perform(put("/api/v1/users/target/role")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(new UserRoleChangeRequest(UserRole.ADMIN))))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+
+        verify(userService, never()).changeRole(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void 로그아웃() throws Exception {
+        mockMvc.perform(post("/api/v1/users/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer test_token")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(userService).logout("test_token");
+    }
+
+    @Test
+    @WithAnonymousUser
+    void 로그아웃시_로그인하지_않은경우() throws Exception {
+        mockMvc.perform(post("/api/v1/users/logout")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(username = "follower")
+    void 팔로우() throws Exception {
+        mockMvc.perform(post("/api/v1/users/target/follow")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(followService).follow("follower", "target");
+    }
+
+    @Test
+    @WithMockUser(username = "follower")
+    void 팔로우시_이미_팔로우한_경우() throws Exception {
+        doThrow(new SnsApplicationException(ErrorCode.ALREADY_FOLLOWED)).when(followService).follow("follower", "target");
+
+        mockMvc.perform(post("/api/v1/users/target/follow")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "follower")
+    void 언팔로우() throws Exception {
+        mockMvc.perform(delete("/api/v1/users/target/follow")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(followService).unfollow("follower", "target");
+    }
+
     @Test
     @WithMockUser
     void 알람기능() throws Exception {
@@ -122,6 +234,19 @@ public class UserControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser
+    void 알람리스트_합쳐진_알람은_개수와_최근_사용자를_응답한다() throws Exception {
+        Alarm alarm = new Alarm(1, null, AlarmType.NEW_LIKE_ON_POST, new AlarmArgs(5, 1, 3, List.of(5, 4, 3)), null, null, null);
+        when(userService.alarmList(any(), any())).thenReturn(new PageImpl<>(List.of(alarm)));
+        mockMvc.perform(get("/api/v1/users/alarm")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.content[0].text").value("3 new likes!"))
+                .andExpect(jsonPath("$.result.content[0].alarmArgs.recentUserIds.length()").value(3));
+    }
+
     @Test
     @WithAnonymousUser
     void 알람리스트_요청시_로그인하지_않은경우() throws Exception {
@@ -132,4 +257,24 @@ public class UserControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser
+    void 알람구독() throws Exception {
+        when(alarmService.subscribe(any())).thenReturn(new SseEmitter());
+        mockMvc.perform(get("/api/v1/users/alarm/subscribe")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void 알람구독시_로그인하지_않은경우() throws Exception {
+        mockMvc.perform(get("/api/v1/users/alarm/subscribe")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+
 }
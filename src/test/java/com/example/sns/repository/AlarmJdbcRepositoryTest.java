@@ -0,0 +1,197 @@
+package com.example.sns.repository;
+
+import com.example.sns.model.AlarmArgs;
+import com.example.sns.model.AlarmEvent;
+import com.example.sns.model.AlarmType;
+import com.example.sns.model.entity.UserEntity;
+import com.example.sns.repository.AlarmJdbcRepository.SavedAlarm;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//알람 합치기를 실제 SQL 로 확인하기 위해 H2 메모리 db를 사용함
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:alarm;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "sns.alarm.coalesce.window=PT1H",
+        "sns.alarm.coalesce.recent-user-count=3"
+})
+@Transactional
+class AlarmJdbcRepositoryTest {
+
+    @Autowired private AlarmJdbcRepository alarmJdbcRepository;
+    @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserEntityRepository userEntityRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void 같은_묶음의_같은_대상_알람은_하나로_합쳐_저장한다() throws IOException {
+
+        Integer userId = user("alarmUser1");
+        List<SavedAlarm> saved = alarmJdbcRepository.saveAll(List.of(alarm(userId, 11, 100), alarm(userId, 12, 100), alarm(userId, 13, 200)));
+
+        List<AlarmArgs> args = findArgs(userId);
+        assertEquals(2, args.size());
+        assertEquals(new AlarmArgs(12, 100, 2, List.of(12, 11)), args.get(0));
+        assertEquals(new AlarmArgs(13, 200, 1, List.of(13)), args.get(1));
+        //저장된 알람의 id와 합쳐진 내용을 반환
+        assertTrue(saved.stream().allMatch(SavedAlarm::isInserted));
+        assertEquals(findIds(userId), saved.stream().map(it -> it.getAlarm().getId()).collect(Collectors.toList()));
+        assertEquals(args, saved.stream().map(it -> it.getAlarm().getArgs()).collect(Collectors.toList()));
+
+    }
+
+    @Test
+    void 이미_저장된_알람이_있으면_갱신하고_없으면_새로_저장한다() throws IOException {
+
+        Integer userId = user("alarmUser2");
+        Integer existingId = alarmJdbcRepository.saveAll(List.of(alarm(userId, 11, 100))).get(0).getAlarm().getId();
+
+        List<SavedAlarm> saved = alarmJdbcRepository.saveAll(List.of(alarm(userId, 12, 100), alarm(userId, 13, 200)));
+
+        List<AlarmArgs> args = findArgs(userId);
+        assertEquals(new AlarmArgs(12, 100, 2, List.of(12, 11)), args.get(0));
+        assertEquals(new AlarmArgs(13, 200, 1, List.of(13)), args.get(1));
+        //갱신된 알람은 기존 id와 합쳐진 내용으로 반환
+        assertFalse(saved.get(0).isInserted());
+        assertEquals(existingId, saved.get(0).getAlarm().getId());
+        assertEquals(args.get(0), saved.get(0).getAlarm().getArgs());
+        assertNotNull(saved.get(0).getAlarm().getUpdatedAt());
+        assertTrue(saved.get(1).isInserted());
+        assertEquals(findIds(userId).get(1), saved.get(1).getAlarm().getId());
+        assertNotNull(jdbcTemplate.queryForObject("SELECT updated_at FROM alarm WHERE user_id = :userId AND target_id = 100", Map.of("userId", userId), Object.class));
+
+    }
+
+    @Test
+    void 합쳐진_알람은_개수를_더하고_최근_사용자를_최신순으로_남긴다() throws IOException {
+
+        Integer userId = user("alarmUser3");
+        alarmJdbcRepository.saveAll(List.of(alarm(userId, 11, 100), alarm(userId, 12, 100)));
+        alarmJdbcRepository.saveAll(List.of(alarm(userId, 13, 100), alarm(userId, 11, 100)));
+
+        //최근 사용자는 중복 없이 recent-user-count 명까지
+        assertEquals(List.of(new AlarmArgs(11, 100, 4, List.of(11, 13, 12))), findArgs(userId));
+
+    }
+
+    @Test
+    void 합치는_시간이_지난_알람에는_합치지_않는다() throws IOException {
+
+        Integer userId = user("alarmUser4");
+        alarmJdbcRepository.saveAll(List.of(alarm(userId, 11, 100)));
+        jdbcTemplate.update("UPDATE alarm SET registered_at = DATEADD('MINUTE', -61, registered_at) WHERE user_id = :userId", Map.of("userId", userId));
+
+        List<SavedAlarm> saved = alarmJdbcRepository.saveAll(List.of(alarm(userId, 12, 100)));
+
+        assertTrue(saved.get(0).isInserted());
+        assertEquals(List.of(new AlarmArgs(11, 100, 1, List.of(11)), new AlarmArgs(12, 100, 1, List.of(12))), findArgs(userId));
+
+    }
+
+    @Test
+    void 개수가_없는_이전_버전의_알람은_1개로_계산해_합친다() throws IOException {
+
+        Integer userId = user("alarmUser5");
+        jdbcTemplate.update("INSERT INTO alarm (user_id, alarm_type, target_id, args, registered_at) " +
+                        "VALUES (:userId, 'NEW_LIKE_ON_POST', 100, :args, CURRENT_TIMESTAMP)",
+                Map.of("userId", userId, "args", "{\"fromUserId\":11,\"targetId\":100}".getBytes()));
+
+        List<SavedAlarm> saved = alarmJdbcRepository.saveAll(List.of(alarm(userId, 12, 100)));
+
+        assertFalse(saved.get(0).isInserted());
+        assertEquals(List.of(new AlarmArgs(12, 100, 2, List.of(12, 11))), findArgs(userId));
+
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void 같은_사용자의_알람을_동시에_저장하면_먼저_잠근_트랜잭션이_커밋된_뒤_합친다() throws Exception {
+
+        Integer userId = user("alarmLockUser");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        CountDownLatch firstSaved = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                alarmJdbcRepository.saveAll(List.of(alarm(userId, 11, 100)));
+                firstSaved.countDown();
+                await(commitFirst);
+            }));
+            await(firstSaved);
+            Future<List<SavedAlarm>> second = executor.submit(() ->
+                    transactionTemplate.execute(status -> alarmJdbcRepository.saveAll(List.of(alarm(userId, 12, 100)))));
+
+            //사용자 행이 잠겨 있으므로 기다림
+            Thread.sleep(300);
+            assertFalse(second.isDone());
+            commitFirst.countDown();
+
+            first.get(5, TimeUnit.SECONDS);
+            assertFalse(second.get(5, TimeUnit.SECONDS).get(0).isInserted());
+            assertEquals(List.of(new AlarmArgs(12, 100, 2, List.of(12, 11))), findArgs(userId));
+        } finally {
+            commitFirst.countDown();
+            executor.shutdownNow();
+        }
+
+    }
+
+    //알람을 저장할 때 받는 사용자의 행을 잠그므로 사용자를 먼저 저장함
+    private Integer user(String userName) {
+        return userEntityRepository.save(UserEntity.of(userName, "password")).getId();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Integer> findIds(Integer userId) {
+        return jdbcTemplate.queryForList("SELECT id FROM alarm WHERE user_id = :userId ORDER BY id", Map.of("userId", userId), Integer.class);
+    }
+
+    private List<AlarmArgs> findArgs(Integer userId) throws IOException {
+        List<byte[]> rows = jdbcTemplate.query("SELECT args FROM alarm WHERE user_id = :userId ORDER BY id",
+                Map.of("userId", userId), (rs, rowNum) -> rs.getBytes("args"));
+        List<AlarmArgs> args = new ArrayList<>();
+        for (byte[] row : rows) {
+            args.add(objectMapper.readValue(row, AlarmArgs.class));
+        }
+        return args;
+    }
+
+    private static AlarmEvent alarm(Integer userId, Integer fromUserId, Integer targetId) {
+        return new AlarmEvent(userId, AlarmType.NEW_LIKE_ON_POST, new AlarmArgs(fromUserId, targetId));
+    }
+}
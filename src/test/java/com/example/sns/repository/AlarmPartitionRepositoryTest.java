@@ -0,0 +1,104 @@
+package com.example.sns.repository;
+
+import com.example.sns.repository.AlarmPartitionRepository.Partition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//파티션 DDL 은 MariaDB 에서만 실행되므로 날짜 계산만 확인함
+class AlarmPartitionRepositoryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    @Test
+    void TO_DAYS_와_같은_값으로_계산한다() {
+
+        //MariaDB 문서의 TO_DAYS('2007-10-07')
+        assertEquals(733321, AlarmPartitionRepository.toDays(LocalDate.of(2007, 10, 7)));
+        assertEquals(740272, AlarmPartitionRepository.toDays(TODAY));
+
+    }
+
+    @Test
+    void 처음_파티션을_나눌때_이전_알람은_어제_파티션에_넣고_이후_날짜까지_만든다() {
+
+        assertEquals(List.of(
+                "PARTITION p20261017 VALUES LESS THAN (740272)",
+                "PARTITION p20261018 VALUES LESS THAN (740273)",
+                "PARTITION p20261019 VALUES LESS THAN (740274)",
+                "PARTITION p20261020 VALUES LESS THAN (740275)",
+                "PARTITION pmax VALUES LESS THAN MAXVALUE"
+        ), AlarmPartitionRepository.initialDefinitions(TODAY, 2));
+
+    }
+
+    @Test
+    void 매일_다음_날짜의_파티션을_하나씩_미리_만든다() {
+
+        //어제 실행되어 2026-10-19 까지 만들어진 경우
+        List<Partition> partitions = List.of(
+                partition("p20261017", "740272"),
+                partition("p20261018", "740273"),
+                partition("p20261019", "740274"),
+                partition("pmax", "MAXVALUE"));
+
+        assertEquals(List.of(
+                "PARTITION p20261020 VALUES LESS THAN (740275)",
+                "PARTITION pmax VALUES LESS THAN MAXVALUE"
+        ), AlarmPartitionRepository.futureDefinitions(partitions, TODAY, 2));
+
+    }
+
+    @Test
+    void 이미_만들어져_있으면_추가하지_않는다() {
+
+        List<Partition> partitions = List.of(
+                partition("p20261019", "740274"),
+                partition("p20261020", "740275"),
+                partition("pmax", "MAXVALUE"));
+
+        assertTrue(AlarmPartitionRepository.futureDefinitions(partitions, TODAY, 2).isEmpty());
+
+    }
+
+    @Test
+    void 서버가_실행되지_않은_동안_빠진_날짜의_파티션을_만든다() {
+
+        //2026-10-15 까지만 만들어진 뒤 서버가 멈춘 경우, 그 사이 알람은 pmax 에 들어 있음
+        List<Partition> partitions = List.of(
+                partition("p20261014", "740269"),
+                partition("p20261015", "740270"),
+                partition("pmax", "MAXVALUE"));
+
+        assertEquals(List.of(
+                "PARTITION p20261016 VALUES LESS THAN (740271)",
+                "PARTITION p20261017 VALUES LESS THAN (740272)",
+                "PARTITION p20261018 VALUES LESS THAN (740273)",
+                "PARTITION p20261019 VALUES LESS THAN (740274)",
+                "PARTITION pmax VALUES LESS THAN MAXVALUE"
+        ), AlarmPartitionRepository.futureDefinitions(partitions, TODAY, 1));
+
+    }
+
+    @Test
+    void 모든_알람이_보관기간보다_오래된_파티션만_삭제한다() {
+
+        //보관 기간 90일 : 2026-07-20 이후 알람만 조회함
+        List<Partition> partitions = List.of(
+                partition("p20260718", "740181"),
+                partition("p20260719", "740182"),
+                partition("p20260720", "740183"),
+                partition("pmax", "MAXVALUE"));
+
+        assertEquals(List.of("p20260718", "p20260719"), AlarmPartitionRepository.expiredPartitions(partitions, TODAY, Period.ofDays(90)));
+
+    }
+
+    private static Partition partition(String name, String description) {
+        return new Partition(name, description);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.sns.service;
+
+import com.example.sns.controller.response.AlarmResponse;
+import com.example.sns.fixture.UserEntityFixture;
+import com.example.sns.model.AlarmArgs;
+import com.example.sns.model.AlarmType;
+import com.example.sns.model.User;
+import com.example.sns.model.projection.AlarmProjection;
+import com.example.sns.repository.EmitterRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+//연결 목록과 전송 스레드 풀의 동작만 확인하므로 redis 는 mock 으로 두고 직접 생성함
+class AlarmServiceTest {
+
+    private final EmitterRepository emitterRepository = new EmitterRepository(new SimpleMeterRegistry(), 3);
+    private final UserService userService = mock(UserService.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AlarmService alarmService = new AlarmService(emitterRepository, userService, redisTemplate, listenerContainer,
+            objectMapper, new SimpleMeterRegistry(), Duration.ofMinutes(30), 2, 100);
+
+    @AfterEach
+    void tearDown() {
+        alarmService.shutdown();
+    }
+
+    @Test
+    void 알람구독시_사용자당_최대_연결수를_넘으면_오래된_연결부터_제거된다() {
+
+        String userName = "subscriber";
+        when(userService.loadUserByUserName(userName)).thenReturn(User.fromEntity(UserEntityFixture.get(userName, "password", 31)));
+
+        SseEmitter first = alarmService.subscribe(userName);
+        alarmService.subscribe(userName);
+        alarmService.subscribe(userName);
+        alarmService.subscribe(userName);
+
+        assertEquals(3, emitterRepository.get(31).size());
+        assertFalse(emitterRepository.get(31).contains(first));
+    }
+
+    @Test
+    void 알람_전송에_실패한_연결은_종료하고_목록에서_제거한다() throws Exception {
+
+        SseEmitter emitter = mock(SseEmitter.class);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            throw new IOException("broken pipe");
+        }).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        emitterRepository.add(51, emitter);
+
+        alarmService.send(51, alarm(1));
+
+        //completeWithError 이후에 목록에서 제거되므로 제거될 때까지 기다림
+        waitUntil(() -> emitterRepository.get(51).isEmpty());
+        verify(emitter).completeWithError(any());
+        //알람 저장 스레드가 아닌 전송 스레드 풀에서 전송함
+        assertTrue(threads.get(0).startsWith("alarm-send-"));
+    }
+
+    @Test
+    void 저장된_알람을_목록_조회와_같은_형식으로_연결과_redis에_보낸다() throws Exception {
+
+        SseEmitter emitter = mock(SseEmitter.class);
+        emitterRepository.add(51, emitter);
+        AlarmProjection alarm = alarm(7);
+        String json = objectMapper.writeValueAsString(AlarmResponse.fromProjection(alarm));
+
+        alarmService.send(51, alarm);
+
+        verify(redisTemplate, timeout(1000)).convertAndSend(eq("ALARM"), argThat((String it) -> it.endsWith(":51:" + json)));
+        assertEquals(json, sentData(emitter));
+    }
+
+    @Test
+    void 다른_서버에서_저장된_알람을_이_서버에_연결된_사용자에게_보낸다() throws Exception {
+
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        alarmService.init();
+        verify(listenerContainer).addMessageListener(listener.capture(), any(Topic.class));
+        SseEmitter emitter = mock(SseEmitter.class);
+        emitterRepository.add(51, emitter);
+        String json = objectMapper.writeValueAsString(AlarmResponse.fromProjection(alarm(7)));
+
+        listener.getValue().onMessage(new DefaultMessage("ALARM".getBytes(StandardCharsets.UTF_8),
+                ("otherNode:51:" + json).getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals(json, sentData(emitter));
+        verify(redisTemplate, never()).convertAndSend(any(), any());
+    }
+
+    @Test
+    void heartbeat_는_스케줄러_스레드가_아닌_전송_스레드_풀에서_보낸다() throws Exception {
+
+        SseEmitter emitter = mock(SseEmitter.class);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> threads.add(Thread.currentThread().getName())).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        emitterRepository.add(51, emitter);
+
+        alarmService.heartbeat();
+
+        verify(emitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        assertTrue(threads.get(0).startsWith("alarm-send-"));
+    }
+
+    //전송된 이벤트의 data 부분
+    private static Object sentData(SseEmitter emitter) throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> event = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(1000)).send(event.capture());
+        return event.getValue().build().stream()
+                .filter(it -> it.getMediaType() != null && MediaType.APPLICATION_JSON.includes(it.getMediaType()))
+                .findFirst()
+                .orElseThrow()
+                .getData();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static AlarmProjection alarm(Integer id) {
+        return new AlarmProjection(id, AlarmType.NEW_LIKE_ON_POST, new AlarmArgs(52, 1, 2, List.of(52, 53)),
+                Timestamp.from(Instant.now()), null, null);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.sns.service;
+
+import com.example.sns.model.AlarmArgs;
+import com.example.sns.model.AlarmEvent;
+import com.example.sns.model.AlarmType;
+import com.example.sns.model.projection.AlarmProjection;
+import com.example.sns.repository.AlarmJdbcRepository;
+import com.example.sns.repository.AlarmJdbcRepository.SavedAlarm;
+import com.example.sns.repository.CountCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+//대기열과 작업 스레드의 동작만 확인하므로 저장소와 트랜잭션은 mock 으로 두고 직접 생성함
+class AlarmWriteServiceTest {
+
+    private final AlarmJdbcRepository alarmJdbcRepository = mock(AlarmJdbcRepository.class);
+    private final CountCacheRepository countCacheRepository = mock(CountCacheRepository.class);
+    private final AlarmService alarmService = mock(AlarmService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<AlarmEvent>> saved = new CopyOnWriteArrayList<>();
+    private final Map<Integer, AlarmEvent> alarms = new HashMap<>();
+
+    private AlarmWriteService alarmWriteService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        alarmWriteService.drain();
+    }
+
+    @Test
+    void batch_size_만큼_모이면_바로_저장한다() {
+
+        //flush-interval 전에 저장되는지 확인
+        alarmWriteService = start(10, 3, Duration.ofSeconds(2));
+        recordSaves();
+
+        alarmWriteService.enqueue(alarm(1));
+        alarmWriteService.enqueue(alarm(2));
+        alarmWriteService.enqueue(alarm(3));
+
+        verify(alarmJdbcRepository, timeout(1000)).saveAll(any());
+        assertEquals(List.of(List.of(alarm(1), alarm(2), alarm(3))), saved);
+        verify(alarmService, times(3)).send(any(), any());
+
+    }
+
+    @Test
+    void flush_interval_이_지나면_모인_알람을_저장한다() {
+
+        alarmWriteService = start(10, 100, Duration.ofMillis(100));
+        recordSaves();
+
+        alarmWriteService.enqueue(alarm(1));
+        alarmWriteService.enqueue(alarm(2));
+
+        verify(alarmJdbcRepository, timeout(1000)).saveAll(any());
+        assertEquals(List.of(List.of(alarm(1), alarm(2))), saved);
+
+    }
+
+    @Test
+    void 대기열이_가득_찬_경우_요청_스레드에서_바로_저장한다() {
+
+        //작업 스레드를 시작하지 않아 대기열이 비워지지 않음
+        alarmWriteService = create(1, 100, Duration.ofMillis(100));
+        recordSaves();
+
+        alarmWriteService.enqueue(alarm(1));
+        alarmWriteService.enqueue(alarm(2));
+
+        assertEquals(List.of(List.of(alarm(2))), saved);
+        assertEquals(1, meterRegistry.counter("sns.alarm.queue.overflow").count());
+        assertEquals(1, meterRegistry.get("sns.alarm.queue.size").gauge().value());
+        //종료 시 대기열에 남은 알람을 저장할 수 있도록 시작
+        alarmWriteService.start();
+
+    }
+
+    @Test
+    void 종료전에_대기중인_알람을_저장한다() throws InterruptedException {
+
+        alarmWriteService = start(10, 100, Duration.ofMillis(200));
+        recordSaves();
+        alarmWriteService.enqueue(alarm(1));
+        alarmWriteService.enqueue(alarm(2));
+
+        alarmWriteService.drain();
+
+        assertEquals(List.of(alarm(1), alarm(2)), saved.stream().flatMap(List::stream).collect(Collectors.toList()));
+        assertEquals(2, meterRegistry.counter("sns.alarm.written").count());
+        assertEquals(0, meterRegistry.counter("sns.alarm.dropped").count());
+
+    }
+
+    @Test
+    void db에_잠시_연결할_수_없으면_기다렸다가_다시_저장한다() {
+
+        alarmWriteService = start(10, 1, Duration.ofMillis(100));
+        when(alarmJdbcRepository.saveAll(any())).thenAnswer(invocation -> {
+            saved.add(List.copyOf(invocation.<List<AlarmEvent>>getArgument(0)));
+            if (saved.size() < 3) {
+                throw new TransientDataAccessResourceException("connection refused");
+            }
+            return saved(List.of(alarm(1)));
+        });
+
+        alarmWriteService.enqueue(alarm(1));
+
+        verify(countCacheRepository, timeout(1000)).increaseAlarmCount(1);
+        assertEquals(List.of(List.of(alarm(1)), List.of(alarm(1)), List.of(alarm(1))), saved);
+        assertEquals(0, meterRegistry.counter("sns.alarm.dropped").count());
+
+    }
+
+    @Test
+    void 저장할_수_없는_알람만_버린다() {
+
+        alarmWriteService = start(10, 3, Duration.ofMillis(100));
+        when(alarmJdbcRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<AlarmEvent> alarms = invocation.getArgument(0);
+            if (alarms.contains(alarm(2))) {
+                throw new DataIntegrityViolationException("user 2 not found");
+            }
+            return saved(alarms);
+        });
+
+        alarmWriteService.enqueue(alarm(1));
+        alarmWriteService.enqueue(alarm(2));
+        alarmWriteService.enqueue(alarm(3));
+
+        verify(countCacheRepository, timeout(1000)).increaseAlarmCount(3);
+        verify(countCacheRepository).increaseAlarmCount(1);
+        verify(countCacheRepository, never()).increaseAlarmCount(2);
+        assertEquals(1, meterRegistry.counter("sns.alarm.dropped").count());
+        assertEquals(2, meterRegistry.counter("sns.alarm.written").count());
+
+    }
+
+    @Test
+    void 기존_알람에_합쳐진_알람은_알람수를_늘리지_않고_갱신된_알람으로_한번만_전송한다() {
+
+        alarmWriteService = start(10, 2, Duration.ofSeconds(2));
+        AlarmProjection merged = new AlarmProjection(9, AlarmType.NEW_LIKE_ON_POST, new AlarmArgs(101, 1, 3, List.of(101, 100)), null, null, null);
+        when(alarmJdbcRepository.saveAll(any())).thenReturn(List.of(new SavedAlarm(1, false, merged)));
+
+        alarmWriteService.enqueue(alarm(1));
+        alarmWriteService.enqueue(alarm(1));
+
+        verify(alarmService, timeout(1000)).send(1, merged);
+        verify(alarmService, times(1)).send(any(), any());
+        verify(countCacheRepository, never()).increaseAlarmCount(any());
+
+    }
+
+    private void recordSaves() {
+        when(alarmJdbcRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<AlarmEvent> alarms = List.copyOf(invocation.<List<AlarmEvent>>getArgument(0));
+            saved.add(alarms);
+            return saved(alarms);
+        });
+    }
+
+    private static List<SavedAlarm> saved(List<AlarmEvent> alarms) {
+        return alarms.stream()
+                .map(it -> new SavedAlarm(it.getUserId(), true, new AlarmProjection(it.getUserId(), it.getAlarmType(), it.getArgs(), null, null, null)))
+                .collect(Collectors.toList());
+    }
+
+    private AlarmWriteService start(int queueCapacity, int batchSize, Duration flushInterval) {
+        AlarmWriteService service = create(queueCapacity, batchSize, flushInterval);
+        service.start();
+        return service;
+    }
+
+    private AlarmWriteService create(int queueCapacity, int batchSize, Duration flushInterval) {
+        return new AlarmWriteService(alarmJdbcRepository, countCacheRepository, alarmService, mock(PlatformTransactionManager.class), meterRegistry,
+                queueCapacity, batchSize, flushInterval, Duration.ofSeconds(5), Duration.ofMillis(10), Duration.ofMillis(50));
+    }
+
+    //저장된 알람을 같은 객체로 비교함
+    private AlarmEvent alarm(Integer userId) {
+        return alarms.computeIfAbsent(userId, it -> new AlarmEvent(it, AlarmType.NEW_LIKE_ON_POST, new AlarmArgs(100, 1)));
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.sns.service;
+
+import com.example.sns.exception.ErrorCode;
+import com.example.sns.exception.SnsApplicationException;
+import com.example.sns.model.entity.LikeEntity;
+import com.example.sns.model.entity.PostEntity;
+import com.example.sns.model.entity.UserEntity;
+import com.example.sns.repository.LikeBufferRepository;
+import com.example.sns.repository.LikeEntityRepository;
+import com.example.sns.repository.LikedPostRepository;
+import com.example.sns.repository.PostEntityRepository;
+import com.example.sns.repository.UserEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+//redis 대기열만 mock 으로 두고 좋아요/게시글은 db에 실제로 저장함
+//주기적인 저장은 테스트에서 직접 호출하도록 간격을 늘림
+@SpringBootTest(properties = {
+        "sns.like.write-behind.enabled=true",
+        "sns.like.write-behind.flush-interval-ms=3600000",
+        "sns.like.write-behind.recover-interval-ms=3600000"
+})
+class LikeWriteBehindServiceTest {
+
+    @Autowired private LikeWriteBehindService likeWriteBehindService;
+    @Autowired private UserEntityRepository userEntityRepository;
+    @Autowired private PostEntityRepository postEntityRepository;
+    @Autowired private LikeEntityRepository likeEntityRepository;
+    @Autowired private LikedPostRepository likedPostRepository;
+
+    @MockBean private LikeBufferRepository likeBufferRepository;
+
+    @Test
+    void 대기열의_좋아요를_묶어서_저장하고_커밋_이후에_확인한다() {
+
+        PostEntity post = post("flushAuthor");
+        List<String> items = List.of(item(user("flushLiker1"), post), item(user("flushLiker2"), post));
+        when(likeBufferRepository.pop(anyInt())).thenReturn(items).thenReturn(List.of());
+
+        likeWriteBehindService.flush();
+
+        assertEquals(2, likeEntityRepository.countByPost(post));
+        assertEquals(2, postEntityRepository.findLikeCountById(post.getId()).orElseThrow());
+        verify(likeBufferRepository).prepare(items);
+        verify(likeBufferRepository).acknowledge(items);
+        verify(likeBufferRepository, never()).pushBack(any());
+        verify(likeBufferRepository, never()).drop(any());
+
+    }
+
+    @Test
+    void 저장할_수_없는_항목은_한건씩_다시_저장하고_버린다() {
+
+        PostEntity post = post("dropAuthor");
+        String valid = item(user("dropLiker"), post);
+        String deletedUser = "999999:" + post.getId();
+        when(likeBufferRepository.pop(anyInt())).thenReturn(List.of(valid, deletedUser)).thenReturn(List.of());
+
+        likeWriteBehindService.flush();
+
+        assertEquals(1, likeEntityRepository.countByPost(post));
+        assertEquals(1, postEntityRepository.findLikeCountById(post.getId()).orElseThrow());
+        verify(likeBufferRepository).acknowledge(List.of(valid));
+        verify(likeBufferRepository).drop(List.of(deletedUser));
+        verify(likeBufferRepository, never()).pushBack(any());
+
+    }
+
+    @Test
+    void 이미_저장된_좋아요가_다시_처리되면_중복으로_버린다() {
+
+        //확인 전에 서버가 종료되어 recover 로 대기열에 되돌려진 경우
+        PostEntity post = post("duplicateAuthor");
+        UserEntity liker = user("duplicateLiker");
+        likeEntityRepository.save(LikeEntity.of(liker, post));
+        when(likeBufferRepository.pop(anyInt())).thenReturn(List.of(item(liker, post))).thenReturn(List.of());
+
+        likeWriteBehindService.flush();
+
+        assertEquals(1, likeEntityRepository.countByPost(post));
+        verify(likeBufferRepository).drop(List.of(item(liker, post)));
+        verify(likeBufferRepository, never()).acknowledge(any());
+
+    }
+
+    @Test
+    void 커밋_직전에_redis에_연결할_수_없으면_롤백하고_대기열에_되돌린다() {
+
+        PostEntity post = post("pushBackAuthor");
+        List<String> items = List.of(item(user("pushBackLiker"), post));
+        when(likeBufferRepository.pop(anyInt())).thenReturn(items).thenReturn(List.of());
+        doThrow(new RedisConnectionFailureException("connection refused")).when(likeBufferRepository).prepare(items);
+
+        likeWriteBehindService.flush();
+
+        assertEquals(0, likeEntityRepository.countByPost(post));
+        assertEquals(0, postEntityRepository.findLikeCountById(post.getId()).orElseThrow());
+        verify(likeBufferRepository).pushBack(items);
+        verify(likeBufferRepository, never()).acknowledge(any());
+        verify(likeBufferRepository, never()).rollback(any());
+
+    }
+
+    @Test
+    void 저장되기_전에_만들어진_좋아요_비트맵에_커밋_이후_추가한다() {
+
+        PostEntity post = post("bitmapAuthor");
+        UserEntity liker = user("bitmapLiker");
+        List<String> items = List.of(item(liker, post));
+        when(likeBufferRepository.pop(anyInt())).thenReturn(items, List.of());
+        //대기 중에 db에서 비트맵을 만든 경우
+        assertFalse(likedPostRepository.isLiked(liker.getId(), post.getId()));
+
+        likeWriteBehindService.flush();
+
+        assertTrue(likedPostRepository.isLiked(liker.getId(), post.getId()));
+
+    }
+
+    @Test
+    void 종료전에_대기중인_좋아요를_저장한다() {
+
+        PostEntity post = post("drainAuthor");
+        List<String> items = List.of(item(user("drainLiker"), post));
+        when(likeBufferRepository.pop(anyInt())).thenReturn(items).thenReturn(List.of());
+
+        likeWriteBehindService.drain();
+
+        assertEquals(1, likeEntityRepository.countByPost(post));
+        verify(likeBufferRepository).acknowledge(items);
+
+    }
+
+    @Test
+    void 저장되기_전에_다시_좋아요_한_경우() {
+
+        when(likeBufferRepository.add(1, 2)).thenReturn(false);
+
+        SnsApplicationException e = assertThrows(SnsApplicationException.class, () -> likeWriteBehindService.buffer(1, 2));
+        assertEquals(ErrorCode.ALREADY_LIKED, e.getErrorCode());
+
+    }
+
+    @Test
+    void 확인되지_않은_항목을_되돌린_뒤_대기수를_다시_계산한다() {
+
+        Instant before = Instant.now();
+        likeWriteBehindService.recover();
+        Instant after = Instant.now();
+
+        //processing-timeout(1분) 이전에 꺼낸 항목
+        verify(likeBufferRepository).recover(argThat(it ->
+                !it.isBefore(before.minus(Duration.ofMinutes(1))) && !it.isAfter(after.minus(Duration.ofMinutes(1)))));
+        verify(likeBufferRepository).repair();
+
+    }
+
+    private UserEntity user(String userName) {
+        return userEntityRepository.save(UserEntity.of(userName, "password"));
+    }
+
+    private PostEntity post(String authorName) {
+        return postEntityRepository.save(PostEntity.of("title", "body", user(authorName)));
+    }
+
+    private static String item(UserEntity user, PostEntity post) {
+        return user.getId() + ":" + post.getId();
+    }
+}
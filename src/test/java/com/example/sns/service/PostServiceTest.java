@@ -6,28 +6,78 @@ import com.example.sns.fixture.PostEntityFixture;
 import com.example.sns.fixture.UserEntityFixture;
 import com.example.sns.model.entity.PostEntity;
 import com.example.sns.model.entity.UserEntity;
+import com.example.sns.model.AlarmEvent;
+import com.example.sns.model.AlarmType;
+import com.example.sns.model.Post;
+import com.example.sns.model.PostEngagement;
+import com.example.sns.model.projection.PostCountProjection;
+import com.example.sns.model.projection.PostDocument;
+import com.example.sns.model.projection.PostProjection;
+import com.example.sns.repository.CommentEntityRepository;
+import com.example.sns.repository.DatabaseLockRepository;
+import com.example.sns.repository.FollowEntityRepository;
+import com.example.sns.repository.LikeEntityRepository;
 import com.example.sns.repository.PostEntityRepository;
+import com.example.sns.repository.PostSearchRepository;
+import com.example.sns.repository.ResponseCacheRepository;
+import com.example.sns.repository.TimelineRepository;
+import com.example.sns.repository.TrendingRepository;
 import com.example.sns.repository.UserEntityRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
+@RecordApplicationEvents
 public class PostServiceTest {
 
     @Autowired private PostService postService;
+    @Autowired private TimelineService timelineService;
+    @Autowired private FollowService followService;
 
     @MockBean private PostEntityRepository postEntityRepository;
     @MockBean private UserEntityRepository userEntityRepository;
+    @MockBean private LikeWriteBehindService likeWriteBehindService;
+    @MockBean private LikeEntityRepository likeEntityRepository;
+    @MockBean private TimelineRepository timelineRepository;
+    @MockBean private FollowEntityRepository followEntityRepository;
+    @MockBean private CommentEntityRepository commentEntityRepository;
+    @MockBean private DatabaseLockRepository databaseLockRepository;
+
+    @Autowired private ResponseCacheRepository responseCacheRepository;
+    @Autowired private PostSearchRepository postSearchRepository;
+    @Autowired private TrendingRepository trendingRepository;
+    @Autowired private ApplicationEvents applicationEvents;
 
     @Test
     void 포스트작성이_성공한_경우() {
@@ -76,6 +126,27 @@ public class PostServiceTest {
 
     }
 
+    @Test
+    void 포스트수정시_요약도_함께_수정된다() {
+
+        String userName = "userName";
+        Integer postId = 1;
+        String body = "a".repeat(PostEntity.EXCERPT_LENGTH + 10);
+
+        PostEntity postEntity = PostEntityFixture.get(userName, postId, 1);
+        UserEntity userEntity = postEntity.getUser();
+
+        when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(userEntity));
+        when(postEntityRepository.findById(postId)).thenReturn(Optional.of(postEntity));
+        when(postEntityRepository.saveAndFlush(any())).thenReturn(postEntity);
+
+        postService.modify("title", body, userName, postId);
+
+        assertEquals(body, postEntity.getBody());
+        assertEquals(PostEntity.EXCERPT_LENGTH, postEntity.getExcerpt().length());
+
+    }
+
     @Test
     void 포스트수정시_포스트가_존재하지않는_경우() {
 
@@ -173,12 +244,55 @@ public class PostServiceTest {
 
         Pageable pageable = mock(Pageable.class);
 
-        when(postEntityRepository.findAll(pageable)).thenReturn(Page.empty());
+        when(postEntityRepository.findProjections(pageable)).thenReturn(new SliceImpl<>(List.of()));
 
         assertDoesNotThrow(() -> postService.list(pageable));
 
     }
 
+    @Test
+    void 피드목록_전체개수는_캐싱된_값을_사용한다() {
+
+        Pageable pageable = mock(Pageable.class);
+
+        when(postEntityRepository.findProjections(pageable)).thenReturn(new SliceImpl<>(List.of()));
+        when(postEntityRepository.count()).thenReturn(3L);
+
+        postService.list(pageable);
+        postService.list(pageable);
+
+        verify(postEntityRepository, atMost(1)).count();
+
+    }
+
+    @Test
+    void 피드목록_커서_요청이_성공한_경우() {
+
+        Pageable pageable = mock(Pageable.class);
+
+        when(postEntityRepository.findProjectionsBefore(Integer.MAX_VALUE, pageable)).thenReturn(new SliceImpl<>(List.of()));
+
+        assertDoesNotThrow(() -> postService.list(Integer.MAX_VALUE, pageable));
+
+    }
+
+    @Test
+    void 좋아요수는_캐싱되고_태그_무효화_후_다시_조회한다() {
+
+        Integer postId = 100;
+
+        when(postEntityRepository.findLikeCountById(postId)).thenReturn(Optional.of(3));
+
+        assertEquals(3, postService.likeCount(postId));
+        postService.likeCount(postId);
+        verify(postEntityRepository, times(1)).findLikeCountById(postId);
+
+        responseCacheRepository.invalidate(ResponseCacheRepository.postTag(postId));
+        postService.likeCount(postId);
+        verify(postEntityRepository, times(2)).findLikeCountById(postId);
+
+    }
+
     @Test
     void 내피드목록_요청이_성공한_경우() {
 
@@ -186,9 +300,362 @@ public class PostServiceTest {
         UserEntity user = mock(UserEntity.class);
 
         when(userEntityRepository.findByUserName(any())).thenReturn(Optional.of(user));
-        when(postEntityRepository.findAllByUser(user, pageable)).thenReturn(Page.empty());
+        when(postEntityRepository.findProjectionsByUser(user, pageable)).thenReturn(new SliceImpl<>(List.of()));
 
         assertDoesNotThrow(() -> postService.my("", pageable));
 
     }
+
+    @Test
+    void 포스트검색은_제목에_일치하는_글이_먼저_조회된다() {
+
+        postSearchRepository.index(900001, "오늘의 일기", "산책하면서 본 벚꽃이 예뻤다");
+        postSearchRepository.index(900002, "벚꽃 구경", "주말에 벚꽃 보러 다녀왔다");
+        postSearchRepository.index(900003, "점심 메뉴", "김치찌개");
+        postSearchRepository.refresh();
+
+        when(postEntityRepository.findProjectionsByIdIn(any())).thenReturn(List.of(
+                new PostProjection(900001, "오늘의 일기", "산책하면서 본 벚꽃이 예뻤다", 1, "userName", 0, 0, null, null, null),
+                new PostProjection(900002, "벚꽃 구경", "주말에 벚꽃 보러 다녀왔다", 1, "userName", 0, 0, null, null, null)
+        ));
+
+        Page<Post> posts = postService.search("벚꽃", PageRequest.of(0, 10));
+
+        assertEquals(List.of(900002, 900001), posts.getContent().stream().map(Post::getId).collect(Collectors.toList()));
+        assertEquals(2, posts.getTotalElements());
+
+    }
+
+    @Test
+    void 검색색인은_재시작시_마지막으로_저장한_이후_변경된_글만_다시_색인한다(@TempDir Path indexPath) throws Exception {
+
+        PostEntityRepository repository = mock(PostEntityRepository.class);
+        when(repository.streamAllDocuments()).thenAnswer(invocation -> Stream.of(new PostDocument(1, "벚꽃 구경", "주말"), new PostDocument(2, "점심", "김치찌개")));
+
+        PostSearchRepository first = searchRepository(repository, indexPath);
+        first.warmUp();
+        Instant stoppedAt = Instant.now();
+        first.close();
+
+        //재시작 전에 저장하지 못한 수정, 삭제
+        when(repository.findDocumentsModifiedSince(any())).thenReturn(List.of(new PostDocument(3, "벚꽃 축제", "저녁")));
+        when(repository.findIdsDeletedSince(any())).thenReturn(List.of(1));
+
+        PostSearchRepository second = searchRepository(repository, indexPath);
+        try {
+            second.warmUp();
+
+            verify(repository, times(1)).streamAllDocuments();
+            verify(repository).findDocumentsModifiedSince(argThat(it -> it.toInstant().isBefore(stoppedAt.minusSeconds(59))));
+            assertEquals(List.of(3), second.search("벚꽃", PageRequest.of(0, 10)).getContent());
+        } finally {
+            second.close();
+        }
+
+    }
+
+    @Test
+    void 검색색인_재생성중에_삭제되거나_수정된_글은_db에서_다시_읽어_반영한다(@TempDir Path indexPath) throws Exception {
+
+        PostEntityRepository repository = mock(PostEntityRepository.class);
+        PostSearchRepository searchRepository = searchRepository(repository, indexPath);
+        //재생성이 읽기 시작한 뒤 1번 글이 삭제되고 2번 글이 수정됨, 읽은 내용은 이전 상태
+        when(repository.streamAllDocuments()).thenAnswer(invocation -> Stream.of(new PostDocument(1, "벚꽃 구경", "주말"), new PostDocument(2, "벚꽃 축제", "저녁"))
+                .peek(it -> {
+                    if (it.getId() == 1) {
+                        searchRepository.delete(1);
+                        searchRepository.index(2, "점심", "김치찌개");
+                    }
+                }));
+        when(repository.findDocumentById(1)).thenReturn(Optional.empty());
+        when(repository.findDocumentById(2)).thenReturn(Optional.of(new PostDocument(2, "점심", "김치찌개")));
+
+        try {
+            searchRepository.rebuild();
+
+            assertTrue(searchRepository.search("벚꽃", PageRequest.of(0, 10)).getContent().isEmpty());
+            assertEquals(List.of(2), searchRepository.search("김치찌개", PageRequest.of(0, 10)).getContent());
+        } finally {
+            searchRepository.close();
+        }
+
+    }
+
+    @Test
+    void 검색결과_페이지가_int_범위를_넘으면_빈_결과를_반환한다() {
+
+        Page<Integer> postIds = postSearchRepository.search("벚꽃", PageRequest.of(Integer.MAX_VALUE / 10, 10));
+
+        assertTrue(postIds.getContent().isEmpty());
+
+    }
+
+    @Test
+    void 인기게시글은_좋아요와_댓글_점수가_높은_순으로_조회된다() {
+
+        trendingRepository.increaseLikeScore(900011);
+        trendingRepository.increaseCommentScore(900012);
+        trendingRepository.increaseLikeScore(900012);
+
+        when(postEntityRepository.findProjectionsByIdIn(any())).thenReturn(List.of(
+                new PostProjection(900011, "title1", "body1", 1, "userName", 0, 0, null, null, null),
+                new PostProjection(900012, "title2", "body2", 1, "userName", 0, 0, null, null, null)
+        ));
+
+        List<Post> posts = postService.trending(PageRequest.of(0, 10));
+
+        assertEquals(List.of(900012, 900011), posts.stream().map(Post::getId).collect(Collectors.toList()));
+
+    }
+
+    @Test
+    void 좋아요수_댓글수는_id_구간별로_다시_계산한다() {
+
+        when(postEntityRepository.findMaxId()).thenReturn(Optional.of(2500));
+        when(databaseLockRepository.executeWithLock(any(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<JdbcTemplate>>getArgument(1).accept(null);
+            return true;
+        });
+
+        postService.reconcileCounts();
+
+        verify(postEntityRepository).reconcileCounts(1, 1001);
+        verify(postEntityRepository).reconcileCounts(1001, 2001);
+        verify(postEntityRepository).reconcileCounts(2001, 3001);
+        verify(postEntityRepository, times(3)).reconcileCounts(any(), any());
+
+    }
+
+    @Test
+    void 좋아요수_댓글수_재계산은_다른_서버가_실행_중이면_건너뛴다() {
+
+        when(databaseLockRepository.executeWithLock(any(), any())).thenReturn(false);
+
+        postService.reconcileCounts();
+
+        verify(postEntityRepository, never()).reconcileCounts(any(), any());
+
+    }
+
+    @Test
+    void 좋아요시_좋아요수_카운터를_증가시킨다() {
+
+        Integer postId = 1;
+        PostEntity postEntity = PostEntityFixture.get("userName", postId, 1);
+        UserEntity userEntity = UserEntityFixture.get("liker", "password", 2);
+
+        when(userEntityRepository.findByUserName("liker")).thenReturn(Optional.of(userEntity));
+        when(postEntityRepository.findById(postId)).thenReturn(Optional.of(postEntity));
+
+        postService.like(postId, "liker");
+
+        verify(postEntityRepository).addLikeCount(postId, 1);
+
+    }
+
+    @Test
+    void 댓글작성시_댓글수_카운터를_증가시킨다() {
+
+        Integer postId = 1;
+        PostEntity postEntity = PostEntityFixture.get("userName", postId, 1);
+        UserEntity userEntity = UserEntityFixture.get("commenter", "password", 2);
+
+        when(userEntityRepository.findByUserName("commenter")).thenReturn(Optional.of(userEntity));
+        when(postEntityRepository.findById(postId)).thenReturn(Optional.of(postEntity));
+
+        postService.comment(postId, "commenter", "comment");
+
+        verify(commentEntityRepository).save(any());
+        verify(postEntityRepository).addCommentCount(postId, 1);
+
+    }
+
+    @Test
+    void 좋아요_쓰기지연_모드에서는_대기열에만_넣고_바로_응답한다() {
+
+        Integer postId = 1;
+        PostEntity postEntity = PostEntityFixture.get("userName", postId, 1);
+        UserEntity userEntity = UserEntityFixture.get("liker", "password", 2);
+
+        when(userEntityRepository.findByUserName("liker")).thenReturn(Optional.of(userEntity));
+        when(postEntityRepository.findById(postId)).thenReturn(Optional.of(postEntity));
+        when(likeWriteBehindService.isEnabled()).thenReturn(true);
+        when(likeWriteBehindService.buffer(postId, 2)).thenReturn(true);
+
+        assertDoesNotThrow(() -> postService.like(postId, "liker"));
+        verify(postEntityRepository, never()).addLikeCount(any(), anyInt());
+
+    }
+
+    @Test
+    void 좋아요시_알람은_저장하지_않고_이벤트로_발행한다() {
+
+        Integer postId = 1;
+        PostEntity postEntity = PostEntityFixture.get("userName", postId, 1);
+        UserEntity userEntity = UserEntityFixture.get("liker", "password", 2);
+
+        when(userEntityRepository.findByUserName("liker")).thenReturn(Optional.of(userEntity));
+        when(postEntityRepository.findById(postId)).thenReturn(Optional.of(postEntity));
+
+        postService.like(postId, "liker");
+
+        List<AlarmEvent> events = applicationEvents.stream(AlarmEvent.class).collect(Collectors.toList());
+        assertEquals(1, events.size());
+        assertEquals(AlarmType.NEW_LIKE_ON_POST, events.get(0).getAlarmType());
+        assertEquals(postEntity.getUser().getId(), events.get(0).getUserId());
+        assertEquals(2, events.get(0).getArgs().getFromUserId());
+
+    }
+
+    @Test
+    void 좋아요수는_db에_저장되지_않은_좋아요를_더해서_응답한다() {
+
+        Integer postId = 101;
+
+        when(postEntityRepository.findLikeCountById(postId)).thenReturn(Optional.of(3));
+        when(likeWriteBehindService.getPendingCount(postId)).thenReturn(2L);
+
+        assertEquals(5, postService.likeCount(postId));
+
+    }
+
+    @Test
+    void 좋아요시_이미_좋아요한_경우_unique_제약_위반으로_에러발생() {
+
+        Integer postId = 1;
+        PostEntity postEntity = PostEntityFixture.get("userName", postId, 1);
+        UserEntity userEntity = UserEntityFixture.get("liker", "password", 2);
+
+        when(userEntityRepository.findByUserName("liker")).thenReturn(Optional.of(userEntity));
+        when(postEntityRepository.findById(postId)).thenReturn(Optional.of(postEntity));
+        when(likeEntityRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", null, "PUBLIC.UK_LIKE_USER_POST_ACTIVE_INDEX_3")));
+
+        SnsApplicationException e = assertThrows(SnsApplicationException.class, () -> postService.like(postId, "liker"));
+        assertEquals(ErrorCode.ALREADY_LIKED, e.getErrorCode());
+        verify(likeEntityRepository, never()).findByUserAndPost(any(), any());
+        verify(postEntityRepository, never()).addLikeCount(any(), anyInt());
+
+    }
+
+    @Test
+    void 목록의_좋아요수_댓글수_좋아요여부를_한번에_조회한다() {
+
+        List<Integer> postIds = List.of(1, 2);
+
+        when(postEntityRepository.findCountsByIdIn(postIds)).thenReturn(List.of(
+                new PostCountProjection(1, 3, 1),
+                new PostCountProjection(2, 0, 4)
+        ));
+        when(likeEntityRepository.findPostIdsByUserId(7)).thenReturn(List.of(1));
+
+        Map<Integer, PostEngagement> engagements = postService.getEngagements(postIds, 7);
+
+        assertEquals(3, engagements.get(1).getLikeCount());
+        assertTrue(engagements.get(1).getLikedByMe());
+        assertEquals(4, engagements.get(2).getCommentCount());
+        assertFalse(engagements.get(2).getLikedByMe());
+        verify(postEntityRepository, never()).findById(any());
+
+    }
+
+    @Test
+    void 좋아요여부는_사용자별로_한번만_db에서_조회한다() {
+
+        when(likeEntityRepository.findPostIdsByUserId(8)).thenReturn(List.of(1, 5));
+        when(postEntityRepository.findCountsByIdIn(List.of(1, 2))).thenReturn(List.of(new PostCountProjection(1, 1, 0), new PostCountProjection(2, 0, 0)));
+        when(postEntityRepository.findCountsByIdIn(List.of(5, 6))).thenReturn(List.of(new PostCountProjection(5, 1, 0), new PostCountProjection(6, 0, 0)));
+
+        assertTrue(postService.getEngagements(List.of(1, 2), 8).get(1).getLikedByMe());
+        assertTrue(postService.getEngagements(List.of(5, 6), 8).get(5).getLikedByMe());
+        assertFalse(postService.getEngagements(List.of(5, 6), 8).get(6).getLikedByMe());
+        verify(likeEntityRepository, times(1)).findPostIdsByUserId(8);
+
+    }
+
+    @Test
+    void 타임라인은_push된_글과_pull_대상의_글을_최신순으로_합친다() {
+
+        String userName = "timelineUserName";
+        UserEntity userEntity = UserEntityFixture.get(userName, "password", 20);
+
+        when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(userEntity));
+        when(timelineRepository.getBefore(20, Integer.MAX_VALUE, 4)).thenReturn(Optional.of(List.of(10, 8, 6, 4)));
+        when(followEntityRepository.findFollowingIdsByMinFollowerCount(eq(20), anyInt())).thenReturn(List.of(99));
+        when(postEntityRepository.findProjectionsByUserIdsBefore(List.of(99), Integer.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(new SliceImpl<>(List.of(projection(9), projection(7))));
+        when(postEntityRepository.findProjectionsByIdIn(List.of(10, 8))).thenReturn(List.of(projection(10), projection(8)));
+
+        Slice<Post> timeline = timelineService.timeline(userName, Integer.MAX_VALUE, PageRequest.of(0, 3));
+
+        assertEquals(List.of(10, 9, 8), timeline.getContent().stream().map(Post::getId).collect(Collectors.toList()));
+        assertTrue(timeline.hasNext());
+        verify(postEntityRepository, never()).findTimelineProjectionsBefore(any(), any(), any());
+
+    }
+
+    @Test
+    void 타임라인에_저장된_id로_페이지를_채울_수_없으면_db에서_조회한다() {
+
+        String userName = "timelineUserName";
+        UserEntity userEntity = UserEntityFixture.get(userName, "password", 21);
+
+        //최근 max-size 개만 남기고 잘렸거나 키가 만료된 경우
+        when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(userEntity));
+        when(timelineRepository.getBefore(21, 50, 4)).thenReturn(Optional.of(List.of(45)));
+        when(postEntityRepository.findTimelineProjectionsBefore(21, 50, PageRequest.of(0, 3)))
+                .thenReturn(new SliceImpl<>(List.of(projection(45), projection(30), projection(20)), PageRequest.of(0, 3), true));
+
+        Slice<Post> timeline = timelineService.timeline(userName, 50, PageRequest.of(0, 3));
+
+        assertEquals(List.of(45, 30, 20), timeline.getContent().stream().map(Post::getId).collect(Collectors.toList()));
+        assertTrue(timeline.hasNext());
+
+    }
+
+    @Test
+    void 타임라인_페이지의_글이_모두_삭제된_경우_마지막으로_확인한_id_다음부터_이어서_조회한다() {
+
+        String userName = "timelineUserName";
+        UserEntity userEntity = UserEntityFixture.get(userName, "password", 22);
+
+        when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(userEntity));
+        when(timelineRepository.getBefore(22, Integer.MAX_VALUE, 3)).thenReturn(Optional.of(List.of(10, 9, 8)));
+        when(postEntityRepository.findProjectionsByIdIn(List.of(10, 9))).thenReturn(List.of());
+        when(timelineRepository.getBefore(22, 9, 3)).thenReturn(Optional.of(List.of(8, 7, 6)));
+        when(postEntityRepository.findProjectionsByIdIn(List.of(8, 7))).thenReturn(List.of(projection(8), projection(7)));
+
+        Slice<Post> timeline = timelineService.timeline(userName, Integer.MAX_VALUE, PageRequest.of(0, 2));
+
+        assertEquals(List.of(8, 7), timeline.getContent().stream().map(Post::getId).collect(Collectors.toList()));
+        assertTrue(timeline.hasNext());
+
+    }
+
+    @Test
+    void 팔로우시_이미_팔로우한_경우_unique_제약_위반으로_에러발생() {
+
+        UserEntity follower = UserEntityFixture.get("follower", "password", 1);
+        UserEntity following = UserEntityFixture.get("target", "password", 2);
+
+        when(userEntityRepository.findByUserName("follower")).thenReturn(Optional.of(follower));
+        when(userEntityRepository.findByUserName("target")).thenReturn(Optional.of(following));
+        when(followEntityRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", null, "PUBLIC.UK_FOLLOW_FOLLOWER_FOLLOWING_ACTIVE_INDEX_4")));
+
+        SnsApplicationException e = assertThrows(SnsApplicationException.class, () -> followService.follow("follower", "target"));
+        assertEquals(ErrorCode.ALREADY_FOLLOWED, e.getErrorCode());
+        verify(followEntityRepository, never()).findByFollowerAndFollowing(any(), any());
+        verify(userEntityRepository, never()).addFollowerCount(any(), anyInt());
+
+    }
+
+    private static PostProjection projection(Integer id) {
+        return new PostProjection(id, "title", "body", 1, "userName", 0, 0, null, null, null);
+    }
+
+    private static PostSearchRepository searchRepository(PostEntityRepository repository, Path indexPath) throws IOException {
+        return new PostSearchRepository(repository, mock(StringRedisTemplate.class), mock(RedisMessageListenerContainer.class),
+                mock(PlatformTransactionManager.class), indexPath.toString(), Duration.ofMinutes(1));
+    }
 }
@@ -3,32 +3,76 @@ package com.example.sns.service;
 import com.example.sns.exception.ErrorCode;
 import com.example.sns.exception.SnsApplicationException;
 import com.example.sns.fixture.UserEntityFixture;
+import com.example.sns.model.User;
+import com.example.sns.model.UserRole;
+import com.example.sns.model.UserTokenVersion;
 import com.example.sns.model.entity.UserEntity;
+import com.example.sns.repository.AlarmPartitionRepository;
+import com.example.sns.repository.AlarmRepository;
 import com.example.sns.repository.UserEntityRepository;
+import com.example.sns.repository.UserNameFilterRepository;
+import com.example.sns.util.JwtClaims;
+import com.example.sns.util.JwtTokenUtils;
+import com.example.sns.util.JwtTokenVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
-@SpringBootTest
+//이름 필터의 동기화 확인은 redis 없이 실패하므로 테스트 중에는 실행하지 않음
+@SpringBootTest(properties = "sns.user.name-filter.sync-check-interval-ms=3600000")
 class UserServiceTest {
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @Autowired
+    private UserNameFilterRepository userNameFilterRepository;
+
+    @Value("${jwt.secret-key}")
+    private String secretKey;
+
     @MockBean
     private UserEntityRepository userEntityRepository;
 
     @MockBean
     private BCryptPasswordEncoder encoder;
 
+    @MockBean
+    private AlarmRepository alarmRepository;
+
+    @MockBean
+    private AlarmPartitionRepository alarmPartitionRepository;
+
     @Test
     void 회원가입이_정상적으로_동작하는_경우() {
 
@@ -52,6 +96,7 @@ class UserServiceTest {
 
         UserEntity fixture = UserEntityFixture.get(userName, password, 1);
 
+        userNameFilterRepository.add(userName);
         when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(fixture));
         when(encoder.encode(password)).thenReturn("encrypt_password");
         when(userEntityRepository.save(any())).thenReturn(Optional.of(fixture));
@@ -68,12 +113,108 @@ class UserServiceTest {
 
         UserEntity fixture = UserEntityFixture.get(userName, password, 1);
 
+        userNameFilterRepository.add(userName);
         when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(fixture));
         when(encoder.matches(password, fixture.getPassword())).thenReturn(true);
 
         assertDoesNotThrow(() -> userService.login(userName, password));
     }
 
+    @Test
+    void 로그인시_발급된_토큰이_검증되는_경우() {
+
+        String userName = "userName";
+        String password = "password";
+
+        UserEntity fixture = UserEntityFixture.get(userName, password, 1);
+
+        userNameFilterRepository.add(userName);
+        when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(fixture));
+        when(encoder.matches(password, fixture.getPassword())).thenReturn(true);
+
+        String token = userService.login(userName, password);
+
+        assertEquals(userName, jwtTokenVerifier.verify(token).getUserName());
+        assertSame(jwtTokenVerifier.verify(token), jwtTokenVerifier.verify(token));
+    }
+
+    @Test
+    void 로그인시_비밀번호_해시의_cost가_낮으면_다시_해싱해_저장한다() {
+
+        String userName = "upgradeUserName";
+        String password = "password";
+
+        UserEntity fixture = UserEntityFixture.get(userName, password, 1);
+
+        userNameFilterRepository.add(userName);
+        when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(fixture));
+        when(encoder.matches(password, password)).thenReturn(true);
+        when(encoder.upgradeEncoding(password)).thenReturn(true);
+        when(encoder.encode(password)).thenReturn("upgraded_password");
+
+        userService.login(userName, password);
+
+        verify(userEntityRepository).save(argThat(it -> "upgraded_password".equals(it.getPassword())));
+    }
+
+    @Test
+    void 로그인시_비밀번호_해시의_cost가_설정과_같으면_다시_해싱하지_않는다() {
+
+        String userName = "notUpgradeUserName";
+        String password = "password";
+
+        UserEntity fixture = UserEntityFixture.get(userName, password, 1);
+
+        userNameFilterRepository.add(userName);
+        when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(fixture));
+        when(encoder.matches(password, password)).thenReturn(true);
+        when(encoder.upgradeEncoding(password)).thenReturn(false);
+
+        userService.login(userName, password);
+
+        verify(encoder, never()).encode(any());
+        verify(userEntityRepository, never()).save(any());
+    }
+
+    @Test
+    void 비밀번호_해싱_대기열이_가득_찬_경우() throws Exception {
+
+        //스레드 1개, 대기열 1개인 풀에서 해싱 하나는 실행 중, 하나는 대기 중인 상태를 만듦
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordHashingService passwordHashingService = new PasswordHashingService(encoder, executor, meterRegistry);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(encoder.encode("blocked")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "encrypt_password";
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> running = callers.submit(() -> passwordHashingService.encode("blocked"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> queued = callers.submit(() -> passwordHashingService.encode("blocked"));
+            while (executor.getQueue().isEmpty()) {
+                Thread.sleep(10);
+            }
+
+            SnsApplicationException e = assertThrows(SnsApplicationException.class, () -> passwordHashingService.encode("password"));
+            assertEquals(ErrorCode.TOO_MANY_REQUESTS, e.getErrorCode());
+            assertEquals(1, meterRegistry.counter("sns.password.hash.rejected").count());
+
+            release.countDown();
+            assertEquals("encrypt_password", running.get(5, TimeUnit.SECONDS));
+            assertEquals("encrypt_password", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void 로그인시_userName으로_회원가입한_유저가_없는_경우() {
 
@@ -86,6 +227,38 @@ class UserServiceTest {
         assertEquals(ErrorCode.USER_NOT_FOUND, e.getErrorCode());
     }
 
+    @Test
+    void 로그인시_가입되지_않은_이름은_db를_조회하지_않는_경우() {
+
+        String userName = "notJoinedUserName";
+        String password = "password";
+
+        SnsApplicationException e = assertThrows(SnsApplicationException.class, () -> userService.login(userName, password));
+        assertEquals(ErrorCode.USER_NOT_FOUND, e.getErrorCode());
+        verify(userEntityRepository, never()).findByUserName(userName);
+    }
+
+    @Test
+    void 로그인시_이름_필터가_동기화되지_않은_경우_db를_조회한다() {
+
+        String userName = "notSyncedUserName";
+        String password = "password";
+
+        UserEntity fixture = UserEntityFixture.get(userName, password, 1);
+
+        //redis 버전을 확인할 수 없으면 필터의 "없음"을 믿지 않음
+        userNameFilterRepository.checkSync();
+        try {
+            when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(fixture));
+            when(encoder.matches(password, password)).thenReturn(true);
+
+            assertDoesNotThrow(() -> userService.login(userName, password));
+            verify(userEntityRepository).findByUserName(userName);
+        } finally {
+            userNameFilterRepository.rebuild();
+        }
+    }
+
     @Test
     void 로그인시_password가_틀린_경우() {
 
@@ -95,10 +268,111 @@ class UserServiceTest {
 
         UserEntity fixture = UserEntityFixture.get(userName, password, 1);
 
+        userNameFilterRepository.add(userName);
         when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(fixture));
 
         SnsApplicationException e = assertThrows(SnsApplicationException.class, () -> userService.login(userName, wrongPassword));
         assertEquals(ErrorCode.INVALID_PASSWORD, e.getErrorCode());
     }
 
-}
\ No newline at end of file
+    @Test
+    void 인증시_캐시된_사용자는_db를_다시_조회하지_않는_경우() {
+
+        String userName = "cachedUserName";
+        String password = "password";
+
+        UserEntity fixture = UserEntityFixture.get(userName, password, 1);
+
+        userNameFilterRepository.add(userName);
+        when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(fixture));
+
+        assertEquals(userName, userService.loadUserByUserName(userName).getUsername());
+        assertEquals(userName, userService.loadUserByUserName(userName).getUsername());
+        verify(userEntityRepository, times(1)).findByUserName(userName);
+    }
+
+    @Test
+    void stateless_토큰은_db에서_사용자를_조회하지_않고_인증되는_경우() {
+
+        String userName = "statelessUserName";
+        Integer userId = 10;
+
+        JwtClaims claims = jwtTokenVerifier.verify(
+                JwtTokenUtils.generateToken(userName, userId, UserRole.USER, 0, secretKey, 60000L));
+
+        when(userEntityRepository.findTokenVersionById(userId)).thenReturn(Optional.of(new UserTokenVersion(userId, UserRole.USER, 0)));
+
+        User user = userService.loadUserByClaims(claims);
+        assertEquals(userId, user.getId());
+        assertEquals(userName, user.getUsername());
+        verify(userEntityRepository, never()).findByUserName(userName);
+    }
+
+    @Test
+    void 권한변경후_이전에_발급된_stateless_토큰은_거부된다() {
+
+        String userName = "roleChangedUserName";
+        Integer userId = 12;
+        UserEntity fixture = UserEntityFixture.get(userName, "password", userId);
+
+        JwtClaims claims = jwtTokenVerifier.verify(
+                JwtTokenUtils.generateToken(userName, userId, UserRole.USER, 0, secretKey, 60000L));
+
+        when(userEntityRepository.findTokenVersionById(userId)).thenReturn(Optional.of(new UserTokenVersion(userId, UserRole.USER, 0)));
+        assertDoesNotThrow(() -> userService.loadUserByClaims(claims));
+
+        when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(fixture));
+        when(userEntityRepository.findTokenVersionById(userId)).thenReturn(Optional.of(new UserTokenVersion(userId, UserRole.ADMIN, 1)));
+        userService.changeRole(userName, UserRole.ADMIN);
+
+        verify(userEntityRepository).increaseTokenVersion(userId);
+        SnsApplicationException e = assertThrows(SnsApplicationException.class, () -> userService.loadUserByClaims(claims));
+        assertEquals(ErrorCode.INVALID_TOKEN, e.getErrorCode());
+    }
+
+    @Test
+    void 로그아웃시_토큰_식별자가_없는_이전_토큰인_경우() {
+
+        //jti 없이 발급된 토큰
+        Claims claims = Jwts.claims();
+        claims.put("userName", "legacyUserName");
+        String token = Jwts.builder()
+                .setClaims(claims)
+                .setExpiration(new Date(System.currentTimeMillis() + 60000L))
+                .signWith(Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        SnsApplicationException e = assertThrows(SnsApplicationException.class, () -> userService.logout(token));
+        assertEquals(ErrorCode.INVALID_TOKEN, e.getErrorCode());
+    }
+
+    @Test
+    void stateless_토큰의_버전이_바뀐_경우() {
+
+        String userName = "expiredUserName";
+        Integer userId = 11;
+
+        JwtClaims claims = jwtTokenVerifier.verify(
+                JwtTokenUtils.generateToken(userName, userId, UserRole.USER, 0, secretKey, 60000L));
+
+        when(userEntityRepository.findTokenVersionById(userId)).thenReturn(Optional.of(new UserTokenVersion(userId, UserRole.USER, 1)));
+
+        SnsApplicationException e = assertThrows(SnsApplicationException.class, () -> userService.loadUserByClaims(claims));
+        assertEquals(ErrorCode.INVALID_TOKEN, e.getErrorCode());
+    }
+
+    @Test
+    void 알람목록은_보관기간_이후에_등록된_알람만_조회한다() {
+
+        String userName = "alarmUser";
+        UserEntity fixture = UserEntityFixture.get(userName, "password", 41);
+        Timestamp since = Timestamp.valueOf("2026-07-20 00:00:00");
+
+        when(userEntityRepository.findByUserName(userName)).thenReturn(Optional.of(fixture));
+        when(alarmPartitionRepository.getRetentionStart()).thenReturn(since);
+        when(alarmRepository.findProjectionsByUser(eq(fixture), eq(since), any())).thenReturn(new SliceImpl<>(List.of()));
+
+        assertDoesNotThrow(() -> userService.alarmSlice(userName, PageRequest.of(0, 20)));
+        verify(alarmRepository).findProjectionsByUser(eq(fixture), eq(since), any());
+    }
+}